@@ -0,0 +1,58 @@
+package searchengine.benchmarks;
+
+import org.apache.lucene.morphology.LuceneMorphology;
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * The lemma finder as it was before the shared morphology and the streaming tokenizer,
+ * kept here as the baseline for the benchmarks.
+ */
+final class BaselineLemmaFinder {
+    private final LuceneMorphology luceneMorphology;
+    private static final String[] particlesNames = new String[]{"МЕЖД", "ПРЕДЛ", "СОЮЗ"};
+
+    static BaselineLemmaFinder getInstance() throws IOException {
+        LuceneMorphology morphology = new RussianLuceneMorphology();
+        return new BaselineLemmaFinder(morphology);
+    }
+
+    private BaselineLemmaFinder(LuceneMorphology luceneMorphology) {
+        this.luceneMorphology = luceneMorphology;
+    }
+
+    Map<String, Integer> collectLemmas(String text) {
+        String[] words = splitToRussianWords(text);
+        Map<String, Integer> lemmas = new HashMap<>();
+
+        for (String word : words) {
+            if (word.isBlank()) continue;
+
+            List<String> morphInfo = luceneMorphology.getMorphInfo(word);
+            if (anyWordBaseBelongToParticle(morphInfo)) continue;
+
+            List<String> normalForms = luceneMorphology.getNormalForms(word);
+            if (normalForms.isEmpty()) continue;
+
+            String normalForm = normalForms.get(0);
+
+            lemmas.put(normalForm, lemmas.getOrDefault(normalForm, 0) + 1);
+        }
+        return lemmas;
+    }
+
+    private boolean anyWordBaseBelongToParticle(List<String> wordBaseForms) {
+        return wordBaseForms.stream()
+                .map(String::toUpperCase)
+                .anyMatch(base -> Arrays.stream(particlesNames).anyMatch(base::contains));
+    }
+
+    static String[] splitToRussianWords(String text) {
+        return text.toLowerCase(Locale.ROOT)
+                .replaceAll("[^а-я\\s]", " ")
+                .trim()
+                .split("\\s+");
+    }
+}
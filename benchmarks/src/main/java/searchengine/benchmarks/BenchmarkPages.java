@@ -0,0 +1,98 @@
+package searchengine.benchmarks;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Pages the benchmarks run on. With {@code -Dbenchmark.db.url} set these are the largest rows
+ * of the {@code page} table, otherwise a generated corpus of {@code benchmark.pageLength} chars.
+ */
+public final class BenchmarkPages {
+    private static final String[] WORDS = {
+            "дом", "дома", "домами", "поиск", "поиска", "поисковый", "страница", "страницы", "страницами",
+            "сайт", "сайта", "сайтов", "ссылка", "ссылки", "индексация", "индекса", "запрос", "запросы",
+            "результат", "результаты", "данные", "данных", "работа", "работы", "который", "которые",
+            "новый", "новая", "большой", "ёлка", "ёлки", "Москва", "Москвы", "и", "в", "на", "с", "по",
+            "для", "не", "что", "как", "HTTP", "java", "2024", "v2", "MySQL"
+    };
+
+    public record PageSample(String content, String text) {
+    }
+
+    private BenchmarkPages() {
+    }
+
+    public static List<PageSample> load() {
+        int count = Integer.getInteger("benchmark.pages", 20);
+        String url = System.getProperty("benchmark.db.url");
+        return (url != null) ? loadFromDatabase(count) : generate(count, Integer.getInteger("benchmark.pageLength", 100_000));
+    }
+
+    public static String query() {
+        return System.getProperty("benchmark.query", "поиск страницы сайта");
+    }
+
+    public static Connection connect() throws SQLException {
+        String url = System.getProperty("benchmark.db.url");
+        if (url == null) {
+            throw new IllegalStateException("Не задан параметр benchmark.db.url");
+        }
+        return DriverManager.getConnection(url, System.getProperty("benchmark.db.user", "root"),
+                System.getProperty("benchmark.db.password", ""));
+    }
+
+    private static List<PageSample> loadFromDatabase(int count) {
+        List<PageSample> pages = new ArrayList<>(count);
+        try (Connection connection = connect();
+             PreparedStatement statement = connection.prepareStatement("""
+                     SELECT content, text
+                     FROM page
+                     WHERE code < 400 AND text IS NOT NULL
+                     ORDER BY LENGTH(text) DESC
+                     LIMIT ?
+                     """)) {
+            statement.setInt(1, count);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    pages.add(new PageSample(rs.getString("content"), rs.getString("text")));
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Не удалось загрузить страницы: " + e.getMessage(), e);
+        }
+        if (pages.isEmpty()) {
+            throw new IllegalStateException("В таблице page нет проиндексированных страниц");
+        }
+        return pages;
+    }
+
+    private static List<PageSample> generate(int count, int length) {
+        Random random = new Random(42);
+        List<PageSample> pages = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder(length + 64);
+            while (text.length() < length) {
+                int words = 6 + random.nextInt(10);
+                for (int w = 0; w < words; w++) {
+                    String word = WORDS[random.nextInt(WORDS.length)];
+                    if (w == 0) {
+                        text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+                    } else {
+                        text.append(' ').append(word);
+                    }
+                }
+                text.append(random.nextInt(4) == 0 ? ", " : ". ");
+            }
+            String content = "<html><head><title>Страница " + i + "</title></head><body><p>"
+                    + text + "</p></body></html>";
+            pages.add(new PageSample(content, text.toString()));
+        }
+        return pages;
+    }
+}
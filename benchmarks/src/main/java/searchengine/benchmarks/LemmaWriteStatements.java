@@ -0,0 +1,129 @@
+package searchengine.benchmarks;
+
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import searchengine.repositories.LemmaRepositoryCustomImpl;
+import searchengine.repositories.SearchIndexRepositoryCustomImpl;
+import searchengine.services.tools.LemmaFinder;
+
+import java.sql.*;
+import java.util.*;
+
+/**
+ * Counts the statements MySQL receives for writing one page's lemmas and index rows:
+ * the old per-lemma find/save/save sequence against the bulk upsert and insert. Both runs
+ * are rolled back. Requires {@code -Dbenchmark.db.url} with the application schema, e.g.
+ * <pre>java -cp benchmarks/target/benchmarks.jar searchengine.benchmarks.LemmaWriteStatements</pre>
+ */
+public final class LemmaWriteStatements {
+
+    private LemmaWriteStatements() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LemmaFinder lemmaFinder = new LemmaFinder(new RussianLuceneMorphology(), 100_000);
+
+        try (Connection connection = BenchmarkPages.connect()) {
+            connection.setAutoCommit(false);
+            int siteId = queryInt(connection, "SELECT id FROM site ORDER BY id LIMIT 1");
+            int pageId = queryInt(connection, "SELECT id FROM page WHERE site_id = " + siteId + " ORDER BY id LIMIT 1");
+
+            for (BenchmarkPages.PageSample page : BenchmarkPages.load()) {
+                Map<String, Integer> lemmas = lemmaFinder.collectLemmas(page.text());
+
+                long before = countStatements(connection, () -> writePerLemma(connection, siteId, pageId, lemmas));
+                long after = countStatements(connection, () -> writeBulk(connection, siteId, pageId, lemmas));
+
+                System.out.printf("lemmas: %d, statements before: %d, after: %d%n", lemmas.size(), before, after);
+            }
+        }
+    }
+
+    /** Replays the SQL Hibernate sent for findByLemmaAndSite, lemmaRepository.save and searchIndexRepository.save. */
+    private static void writePerLemma(Connection connection, int siteId, int pageId,
+                                      Map<String, Integer> lemmas) throws SQLException {
+        try (PreparedStatement find = connection.prepareStatement(
+                     "SELECT id, frequency FROM lemma WHERE lemma = ? AND site_id = ?");
+             PreparedStatement update = connection.prepareStatement(
+                     "UPDATE lemma SET frequency = ?, lemma = ?, site_id = ? WHERE id = ?");
+             PreparedStatement insertLemma = connection.prepareStatement(
+                     "INSERT INTO lemma (frequency, lemma, site_id) VALUES (?, ?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertIndex = connection.prepareStatement(
+                     "INSERT INTO search_index (lemma_id, page_id, rank_value) VALUES (?, ?, ?)")) {
+
+            for (Map.Entry<String, Integer> entry : lemmas.entrySet()) {
+                find.setString(1, entry.getKey());
+                find.setInt(2, siteId);
+                int lemmaId;
+                try (ResultSet rs = find.executeQuery()) {
+                    if (rs.next()) {
+                        lemmaId = rs.getInt("id");
+                        update.setInt(1, rs.getInt("frequency") + 1);
+                        update.setString(2, entry.getKey());
+                        update.setInt(3, siteId);
+                        update.setInt(4, lemmaId);
+                        update.executeUpdate();
+                    } else {
+                        insertLemma.setInt(1, 1);
+                        insertLemma.setString(2, entry.getKey());
+                        insertLemma.setInt(3, siteId);
+                        insertLemma.executeUpdate();
+                        try (ResultSet keys = insertLemma.getGeneratedKeys()) {
+                            keys.next();
+                            lemmaId = keys.getInt(1);
+                        }
+                    }
+                }
+
+                insertIndex.setInt(1, lemmaId);
+                insertIndex.setInt(2, pageId);
+                insertIndex.setFloat(3, entry.getValue());
+                insertIndex.executeUpdate();
+            }
+        }
+    }
+
+    private static void writeBulk(Connection connection, int siteId, int pageId, Map<String, Integer> lemmas) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(new SingleConnectionDataSource(connection, true));
+
+        SortedMap<String, Integer> deltas = new TreeMap<>();
+        lemmas.keySet().forEach(lemma -> deltas.put(lemma, 1));
+        Map<String, Integer> lemmaIds = new LemmaRepositoryCustomImpl(jdbcTemplate).upsertLemmas(siteId, deltas);
+
+        Map<Integer, Float> ranks = new HashMap<>();
+        lemmas.forEach((lemma, count) -> ranks.put(lemmaIds.get(lemma), count.floatValue()));
+        new SearchIndexRepositoryCustomImpl(jdbcTemplate).insertAll(pageId, ranks);
+    }
+
+    private static long countStatements(Connection connection, SqlAction action) throws SQLException {
+        long before = questions(connection);
+        action.run();
+        long after = questions(connection);
+        connection.rollback();
+        return after - before - 1;
+    }
+
+    private static long questions(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW SESSION STATUS LIKE 'Questions'")) {
+            rs.next();
+            return rs.getLong(2);
+        }
+    }
+
+    private static int queryInt(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(sql)) {
+            if (!rs.next()) {
+                throw new IllegalStateException("Нет данных для замера: " + sql);
+            }
+            return rs.getInt(1);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SqlAction {
+        void run() throws SQLException;
+    }
+}
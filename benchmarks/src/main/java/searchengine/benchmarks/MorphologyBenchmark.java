@@ -0,0 +1,66 @@
+package searchengine.benchmarks;
+
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.openjdk.jmh.annotations.*;
+import searchengine.services.tools.LemmaFinder;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Indexing throughput (pages/s) and query lemmatization latency with a morphology built per
+ * call, as {@code LemmaFinder.getInstance()} did, against the shared {@link LemmaFinder}.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class MorphologyBenchmark {
+    private List<BenchmarkPages.PageSample> pages;
+    private String query;
+    private LemmaFinder lemmaFinder;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        pages = BenchmarkPages.load();
+        query = BenchmarkPages.query();
+        lemmaFinder = new LemmaFinder(new RussianLuceneMorphology(), 100_000);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Map<String, Integer> indexPagePerCallMorphology() throws IOException {
+        return BaselineLemmaFinder.getInstance().collectLemmas(nextText());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public Map<String, Integer> indexPageSharedMorphology() {
+        return lemmaFinder.collectLemmas(nextText());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Integer> queryPerCallMorphology() throws IOException {
+        return BaselineLemmaFinder.getInstance().collectLemmas(query);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Integer> querySharedMorphology() {
+        return lemmaFinder.collectLemmas(query);
+    }
+
+    private String nextText() {
+        String text = pages.get(next).text();
+        next = (next + 1) % pages.size();
+        return text;
+    }
+}
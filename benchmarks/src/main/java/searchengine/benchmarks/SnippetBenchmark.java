@@ -0,0 +1,92 @@
+package searchengine.benchmarks;
+
+import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
+import org.jsoup.Jsoup;
+import org.openjdk.jmh.annotations.*;
+import searchengine.services.tools.LemmaFinder;
+import searchengine.services.tools.SnippetBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Snippet building with the old substring/replaceAll method against {@link SnippetBuilder}.
+ * The old method parsed the stored HTML, the new one works on the stored page text, so each
+ * gets the input it is given in the search path.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class SnippetBenchmark {
+    private List<BenchmarkPages.PageSample> pages;
+    private List<String> queryLemmas;
+    private SnippetBuilder snippetBuilder;
+    private int maxLength;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        pages = BenchmarkPages.load();
+        maxLength = Integer.getInteger("benchmark.snippetLength", 200);
+        LemmaFinder lemmaFinder = new LemmaFinder(new RussianLuceneMorphology(), 100_000);
+        snippetBuilder = new SnippetBuilder(lemmaFinder);
+        queryLemmas = new ArrayList<>(lemmaFinder.collectLemmas(BenchmarkPages.query()).keySet());
+    }
+
+    @Benchmark
+    public String substringSnippet() {
+        return buildSnippet(nextPage().content(), queryLemmas, maxLength);
+    }
+
+    @Benchmark
+    public String lemmaSnippet() {
+        return snippetBuilder.build(nextPage().text(), queryLemmas, maxLength);
+    }
+
+    private BenchmarkPages.PageSample nextPage() {
+        BenchmarkPages.PageSample page = pages.get(next);
+        next = (next + 1) % pages.size();
+        return page;
+    }
+
+    private static String buildSnippet(String html, List<String> words, int maxSnippetLength) {
+        String text = Jsoup.parse(html).text();
+        int firstIndex = -1;
+        String firstWord = null;
+
+        for (String word : words) {
+            int idx = text.toLowerCase().indexOf(word.toLowerCase());
+
+            if (idx != -1 && (firstIndex == -1 || idx < firstIndex)) {
+                firstIndex = idx;
+                firstWord = word;
+            }
+        }
+
+        if (firstIndex == -1) {
+            String snippet = text.substring(0, Math.min(maxSnippetLength, text.length()));
+
+            for (String word : words) {
+                snippet = snippet.replaceAll("(?i)" + word, "<b>" + word + "</b>");
+            }
+            return snippet;
+        }
+
+        int radius = maxSnippetLength / 2;
+        int start = Math.max(0, firstIndex - radius);
+        int end = Math.min(text.length(), firstIndex + radius);
+
+        String snippet = text.substring(start, end);
+
+        for (String word : words) {
+            snippet = snippet.replaceAll("(?i)" + word, "<b>" + word + "</b>");
+        }
+
+        return snippet + "...";
+    }
+}
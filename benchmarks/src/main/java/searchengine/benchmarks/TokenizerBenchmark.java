@@ -0,0 +1,47 @@
+package searchengine.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+import searchengine.services.tools.WordTokenizer;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Splitting page text into words with the old lowercase/replaceAll/split chain against
+ * the single-pass {@link WordTokenizer}. Run with {@code -prof gc} to compare allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class TokenizerBenchmark {
+    private List<BenchmarkPages.PageSample> pages;
+    private int next;
+    private int tokens;
+    private final WordTokenizer.TokenHandler counter = (text, start, end, cyrillic) -> tokens++;
+
+    @Setup
+    public void setUp() {
+        pages = BenchmarkPages.load();
+    }
+
+    @Benchmark
+    public int regexSplit() {
+        return BaselineLemmaFinder.splitToRussianWords(nextText()).length;
+    }
+
+    @Benchmark
+    public int streamingTokenizer() {
+        tokens = 0;
+        WordTokenizer.tokenize(nextText(), counter);
+        return tokens;
+    }
+
+    private String nextText() {
+        String text = pages.get(next).text();
+        next = (next + 1) % pages.size();
+        return text;
+    }
+}
@@ -0,0 +1,71 @@
+package searchengine.index;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decode throughput of the posting list formats: a full scan, as for a single-lemma query,
+ * and advancing to every hundredth page, as the intersection does for a rare second lemma.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+public class PostingListBenchmark {
+    @Param({"array", "compressed"})
+    public String format;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private PostingList postings;
+    private int[] targets;
+
+    @Setup
+    public void setUp() {
+        postings = build(format, size);
+        targets = new int[size / 100];
+        Random random = new Random(7);
+        int pageId = 0;
+        for (int i = 0; i < targets.length; i++) {
+            pageId += 1 + random.nextInt(800);
+            targets[i] = pageId;
+        }
+    }
+
+    @Benchmark
+    public float scan() {
+        PostingCursor cursor = postings.cursor();
+        float sum = 0;
+        while (cursor.next() != PostingCursor.NO_MORE_PAGES) {
+            sum += cursor.rank();
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public float advance() {
+        PostingCursor cursor = postings.cursor();
+        float sum = 0;
+        for (int target : targets) {
+            if (cursor.advance(target) == PostingCursor.NO_MORE_PAGES) break;
+            sum += cursor.rank();
+        }
+        return sum;
+    }
+
+    static PostingList build(String format, int size) {
+        PostingList postings = format.equals("array") ? new ArrayPostingList() : new CompressedPostingList();
+        Random random = new Random(42);
+        int pageId = 0;
+        for (int i = 0; i < size; i++) {
+            pageId += 1 + random.nextInt(8);
+            postings.add(pageId, 1 + random.nextInt(20));
+        }
+        return postings;
+    }
+}
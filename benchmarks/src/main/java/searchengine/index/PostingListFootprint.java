@@ -0,0 +1,24 @@
+package searchengine.index;
+
+import org.openjdk.jol.info.GraphLayout;
+
+/**
+ * Prints the retained heap size per posting of each posting list format, measured with JOL:
+ * <pre>java -cp benchmarks/target/benchmarks.jar searchengine.index.PostingListFootprint</pre>
+ */
+public final class PostingListFootprint {
+
+    private PostingListFootprint() {
+    }
+
+    public static void main(String[] args) {
+        for (int size : new int[]{1_000, 10_000, 1_000_000}) {
+            for (String format : new String[]{"array", "compressed"}) {
+                PostingList postings = PostingListBenchmark.build(format, size);
+                long bytes = GraphLayout.parseInstance(postings).totalSize();
+                System.out.printf("%-10s %9d postings: %10d bytes, %.2f bytes/posting%n",
+                        format, size, bytes, (double) bytes / size);
+            }
+        }
+    }
+}
@@ -6,6 +6,8 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 @Getter
 @Setter
@@ -16,5 +18,18 @@ public class IndexingConfig {
     private String referrer;
     private int minDelayMillis;
     private int maxDelayMillis;
+    private int indexerThreads = 2;
+    private int queueCapacity = 200;
+    private int batchSize = 20;
+    private int fetchThreads = 8;
+    private int fetchTimeoutMillis = 10000;
+    private int maxBodyBytes = 5 * 1024 * 1024;
+    private String frontierDir = "frontier";
+    private Set<String> excludedExtensions = Set.of("jpg", "jpeg", "png", "gif", "bmp", "ico", "svg", "pdf",
+            "doc", "docx", "xls", "xlsx", "zip", "rar", "mp4", "avi", "mov", "wmv", "css", "js");
+    private List<String> includePaths = List.of();
+    private List<String> excludePaths = List.of();
+    private int maxDepth;
+    private int maxQueryLength;
     private HashSet<SiteConfig> sites;
 }
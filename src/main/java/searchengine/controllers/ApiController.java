@@ -1,13 +1,16 @@
 package searchengine.controllers;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import searchengine.dto.search.SearchResponseDto;
 import searchengine.dto.statistics.StatisticsResponse;
+import searchengine.index.QueryResultCache;
 import searchengine.services.IndexingServiceImpl;
 import searchengine.services.PageIndexingServiceImpl;
 import searchengine.services.SearchService;
 import searchengine.services.StatisticsService;
+import searchengine.services.tools.LemmaFinder;
 
 import java.util.Map;
 
@@ -19,12 +22,16 @@ public class ApiController {
     private final IndexingServiceImpl indexingService;
     private final PageIndexingServiceImpl pageIndexingService;
     private final SearchService searchService;
+    private final LemmaFinder lemmaFinder;
+    private final QueryResultCache queryResultCache;
 
-    public ApiController(StatisticsService statisticsService, IndexingServiceImpl indexingService, PageIndexingServiceImpl pageIndexingService, SearchService searchService) {
+    public ApiController(StatisticsService statisticsService, IndexingServiceImpl indexingService, PageIndexingServiceImpl pageIndexingService, SearchService searchService, LemmaFinder lemmaFinder, QueryResultCache queryResultCache) {
         this.statisticsService = statisticsService;
         this.indexingService = indexingService;
         this.pageIndexingService = pageIndexingService;
         this.searchService = searchService;
+        this.lemmaFinder = lemmaFinder;
+        this.queryResultCache = queryResultCache;
     }
 
     @GetMapping("/statistics")
@@ -32,6 +39,29 @@ public class ApiController {
         return ResponseEntity.ok(statisticsService.getStatistics());
     }
 
+    @GetMapping("/cacheStatistics")
+    public ResponseEntity<Map<String, Object>> cacheStatistics() {
+        CacheStats lemmaStats = lemmaFinder.getCacheStats();
+        CacheStats queryStats = queryResultCache.getCacheStats();
+        return ResponseEntity.ok(Map.of(
+                "result", true,
+                "lemmaCache", Map.of(
+                        "size", lemmaFinder.getCacheSize(),
+                        "hitCount", lemmaStats.hitCount(),
+                        "missCount", lemmaStats.missCount(),
+                        "evictionCount", lemmaStats.evictionCount(),
+                        "hitRate", lemmaStats.hitRate()
+                ),
+                "queryCache", Map.of(
+                        "size", queryResultCache.getCacheSize(),
+                        "hitCount", queryStats.hitCount(),
+                        "missCount", queryStats.missCount(),
+                        "evictionCount", queryStats.evictionCount(),
+                        "hitRate", queryStats.hitRate()
+                )
+        ));
+    }
+
     @GetMapping("/startIndexing")
     public ResponseEntity<Map<String, Object>> startIndexing() {
         boolean started = indexingService.startIndexing();
@@ -0,0 +1,7 @@
+package searchengine.dto.indexing;
+
+public interface IndexedLemma {
+    Integer getLemmaId();
+    String getLemma();
+    Float getRank();
+}
@@ -0,0 +1,7 @@
+package searchengine.dto.indexing;
+
+public interface PageValidators {
+    String getPathKey();
+    String getEtag();
+    String getLastModified();
+}
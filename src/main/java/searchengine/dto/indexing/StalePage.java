@@ -0,0 +1,6 @@
+package searchengine.dto.indexing;
+
+public interface StalePage {
+    Integer getId();
+    String getPathKey();
+}
@@ -0,0 +1,6 @@
+package searchengine.dto.search;
+
+public interface MatchStatistics {
+    Long getTotal();
+    Double getMaxRelevance();
+}
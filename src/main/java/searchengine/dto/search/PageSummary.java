@@ -0,0 +1,10 @@
+package searchengine.dto.search;
+
+public interface PageSummary {
+    Integer getId();
+    String getPath();
+    String getTitle();
+    String getText();
+    String getSiteUrl();
+    String getSiteName();
+}
@@ -10,12 +10,18 @@ public class SearchResponseDto {
     private String error;
     private int count;
     private List<SearchResultDto> data;
+    private boolean partial;
 
     public static SearchResponseDto ok(List<SearchResultDto> data, int count) {
+        return ok(data, count, false);
+    }
+
+    public static SearchResponseDto ok(List<SearchResultDto> data, int count, boolean partial) {
         SearchResponseDto response = new SearchResponseDto();
         response.result = true;
         response.data = data;
         response.count = count;
+        response.partial = partial;
         return response;
     }
 
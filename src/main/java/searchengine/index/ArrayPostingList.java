@@ -0,0 +1,129 @@
+package searchengine.index;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+class ArrayPostingList implements PostingList {
+    private int[] pageIds = new int[4];
+    private float[] ranks = new float[4];
+    private int size;
+    private float maxRank;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void add(int pageId, float rank) {
+        maxRank = Math.max(maxRank, rank);
+        int position = size;
+
+        if (size > 0 && pageIds[size - 1] >= pageId) {
+            position = Arrays.binarySearch(pageIds, 0, size, pageId);
+            if (position >= 0) {
+                ranks[position] = rank;
+                return;
+            }
+            position = -position - 1;
+        }
+
+        if (size == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, size * 2);
+            ranks = Arrays.copyOf(ranks, size * 2);
+        }
+
+        System.arraycopy(pageIds, position, pageIds, position + 1, size - position);
+        System.arraycopy(ranks, position, ranks, position + 1, size - position);
+        pageIds[position] = pageId;
+        ranks[position] = rank;
+        size++;
+    }
+
+    @Override
+    public void remove(int pageId) {
+        int position = Arrays.binarySearch(pageIds, 0, size, pageId);
+        if (position < 0) return;
+
+        System.arraycopy(pageIds, position + 1, pageIds, position, size - position - 1);
+        System.arraycopy(ranks, position + 1, ranks, position, size - position - 1);
+        size--;
+    }
+
+    @Override
+    public void retain(IntPredicate pageFilter) {
+        int kept = 0;
+        maxRank = 0;
+        for (int i = 0; i < size; i++) {
+            if (pageFilter.test(pageIds[i])) {
+                pageIds[kept] = pageIds[i];
+                ranks[kept] = ranks[i];
+                maxRank = Math.max(maxRank, ranks[i]);
+                kept++;
+            }
+        }
+        size = kept;
+    }
+
+    @Override
+    public PostingCursor cursor() {
+        return new Cursor();
+    }
+
+    private int gallop(int from, int target) {
+        if (from >= size || pageIds[from] >= target) return from;
+
+        int bound = 1;
+        while (from + bound < size && pageIds[from + bound] < target) {
+            bound <<= 1;
+        }
+
+        int low = from + (bound >> 1) + 1;
+        int high = Math.min(from + bound, size - 1);
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (pageIds[middle] < target) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private class Cursor implements PostingCursor {
+        private int index = -1;
+
+        @Override
+        public int next() {
+            index++;
+            return current();
+        }
+
+        @Override
+        public int advance(int target) {
+            index = gallop(Math.max(index, 0), target);
+            return current();
+        }
+
+        @Override
+        public float rank() {
+            return ranks[index];
+        }
+
+        @Override
+        public float maxRank() {
+            return maxRank;
+        }
+
+        @Override
+        public float blockMaxRank() {
+            return maxRank;
+        }
+
+        private int current() {
+            return index < size ? pageIds[index] : NO_MORE_PAGES;
+        }
+    }
+}
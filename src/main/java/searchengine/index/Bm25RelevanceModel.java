@@ -0,0 +1,46 @@
+package searchengine.index;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Getter
+@Component
+@ConditionalOnProperty(name = "search.relevance", havingValue = "bm25")
+public class Bm25RelevanceModel implements RelevanceModel {
+    private final double k1;
+    private final double b;
+
+    public Bm25RelevanceModel(@Value("${search.bm25.k1:1.2}") double k1,
+                              @Value("${search.bm25.b:0.75}") double b) {
+        this.k1 = k1;
+        this.b = b;
+    }
+
+    @Override
+    public double termWeight(long documentFrequency, long documentCount) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    @Override
+    public double score(float rank, double termWeight, int documentLength, double averageDocumentLength) {
+        double lengthNorm = 1 - b + b * documentLength / Math.max(averageDocumentLength, 1);
+        return termWeight * rank * (k1 + 1) / (rank + k1 * lengthNorm);
+    }
+
+    @Override
+    public double maxScore(float maxRank, double termWeight) {
+        return termWeight * maxRank * (k1 + 1) / (maxRank + k1 * (1 - b));
+    }
+
+    @Override
+    public boolean usesDocumentLength() {
+        return true;
+    }
+
+    @Override
+    public boolean usesCollectionStatistics() {
+        return true;
+    }
+}
@@ -0,0 +1,458 @@
+package searchengine.index;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+class CompressedPostingList implements PostingList {
+    static final int BLOCK_SIZE = 128;
+    private static final int MIN_PENDING_TO_COMPACT = 16;
+
+    private byte[] data = new byte[0];
+    private int dataLength;
+    private byte[] blockRanks = new byte[0];
+    private byte[] blockMaxRanks = new byte[0];
+    private int[] blockOffsets = new int[0];
+    private int[] blockLastIds = new int[0];
+    private int blockCount;
+
+    private final int[] tailIds = new int[BLOCK_SIZE];
+    private final float[] tailRanks = new float[BLOCK_SIZE];
+    private int tailSize;
+    private float maxRank;
+
+    private int[] removedIds = new int[0];
+    private int removedCount;
+
+    private int[] addedIds = new int[0];
+    private float[] addedRanks = new float[0];
+    private int addedCount;
+    private float addedMaxRank;
+
+    @Override
+    public int size() {
+        return storedSize() - removedCount + addedCount;
+    }
+
+    @Override
+    public void add(int pageId, float rank) {
+        if (storedSize() == 0 || pageId > lastPageId()) {
+            appendToTail(pageId, rank);
+        } else if (blockCount == 0 || pageId > blockLastIds[blockCount - 1]) {
+            insertIntoTail(pageId, rank);
+        } else if (!updateSealed(pageId, rank)) {
+            addPending(pageId, rank);
+            compactIfNeeded();
+        }
+    }
+
+    @Override
+    public void remove(int pageId) {
+        if (blockCount == 0 || pageId > blockLastIds[blockCount - 1]) {
+            int position = Arrays.binarySearch(tailIds, 0, tailSize, pageId);
+            if (position < 0) return;
+            System.arraycopy(tailIds, position + 1, tailIds, position, tailSize - position - 1);
+            System.arraycopy(tailRanks, position + 1, tailRanks, position, tailSize - position - 1);
+            tailSize--;
+            return;
+        }
+
+        int added = Arrays.binarySearch(addedIds, 0, addedCount, pageId);
+        if (added >= 0) {
+            System.arraycopy(addedIds, added + 1, addedIds, added, addedCount - added - 1);
+            System.arraycopy(addedRanks, added + 1, addedRanks, added, addedCount - added - 1);
+            addedCount--;
+            return;
+        }
+
+        if (findInBlock(pageId) < 0) return;
+        int position = Arrays.binarySearch(removedIds, 0, removedCount, pageId);
+        if (position >= 0) return;
+        position = -position - 1;
+
+        if (removedCount == removedIds.length) {
+            removedIds = Arrays.copyOf(removedIds, Math.max(16, removedCount * 2));
+        }
+        System.arraycopy(removedIds, position, removedIds, position + 1, removedCount - position);
+        removedIds[position] = pageId;
+        removedCount++;
+        compactIfNeeded();
+    }
+
+    @Override
+    public void retain(IntPredicate pageFilter) {
+        int stored = storedSize();
+        int[] storedIds = new int[stored];
+        float[] storedRanks = new float[stored];
+        decodeAll(storedIds, storedRanks);
+
+        int[] pageIds = new int[stored + addedCount];
+        float[] ranks = new float[stored + addedCount];
+        int kept = 0;
+        int added = 0;
+        for (int i = 0; i < stored || added < addedCount; ) {
+            int pageId;
+            float rank;
+            if (i == stored || (added < addedCount && addedIds[added] < storedIds[i])) {
+                pageId = addedIds[added];
+                rank = addedRanks[added++];
+            } else {
+                pageId = storedIds[i];
+                rank = storedRanks[i++];
+                if (isRemoved(pageId)) continue;
+            }
+            if (pageFilter.test(pageId)) {
+                pageIds[kept] = pageId;
+                ranks[kept] = rank;
+                kept++;
+            }
+        }
+        rebuild(pageIds, ranks, kept);
+    }
+
+    @Override
+    public PostingCursor cursor() {
+        return new Cursor();
+    }
+
+    static int quantizeRank(float rank) {
+        int value = Math.round(rank);
+        if (value < 128) return Math.max(value, 0);
+        return Math.min(255, 128 + (int) Math.round(Math.log(value / 128.0) * 16));
+    }
+
+    static float dequantizeRank(int quantized) {
+        if (quantized < 128) return quantized;
+        return (float) (128 * Math.exp((quantized - 128) / 16.0));
+    }
+
+    private int storedSize() {
+        return blockCount * BLOCK_SIZE + tailSize;
+    }
+
+    private void compactIfNeeded() {
+        int pending = removedCount + addedCount;
+        if (pending >= MIN_PENDING_TO_COMPACT && pending * 8 > storedSize()) {
+            retain(id -> true);
+        }
+    }
+
+    private void addPending(int pageId, float rank) {
+        maxRank = Math.max(maxRank, rank);
+        addedMaxRank = Math.max(addedMaxRank, rank);
+        int position = Arrays.binarySearch(addedIds, 0, addedCount, pageId);
+        if (position >= 0) {
+            addedRanks[position] = rank;
+            return;
+        }
+        position = -position - 1;
+
+        if (addedCount == addedIds.length) {
+            addedIds = Arrays.copyOf(addedIds, Math.max(16, addedCount * 2));
+            addedRanks = Arrays.copyOf(addedRanks, addedIds.length);
+        }
+        System.arraycopy(addedIds, position, addedIds, position + 1, addedCount - position);
+        System.arraycopy(addedRanks, position, addedRanks, position + 1, addedCount - position);
+        addedIds[position] = pageId;
+        addedRanks[position] = rank;
+        addedCount++;
+    }
+
+    private boolean isRemoved(int pageId) {
+        return removedCount > 0 && Arrays.binarySearch(removedIds, 0, removedCount, pageId) >= 0;
+    }
+
+    private int findInBlock(int pageId) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (blockLastIds[middle] < pageId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        int[] pageIds = new int[BLOCK_SIZE];
+        decodeBlock(low, pageIds, 0);
+        int position = Arrays.binarySearch(pageIds, pageId);
+        return position >= 0 ? low * BLOCK_SIZE + position : -1;
+    }
+
+    private boolean updateSealed(int pageId, float rank) {
+        int position = findInBlock(pageId);
+        if (position < 0) return false;
+
+        int removed = Arrays.binarySearch(removedIds, 0, removedCount, pageId);
+        if (removed >= 0) {
+            System.arraycopy(removedIds, removed + 1, removedIds, removed, removedCount - removed - 1);
+            removedCount--;
+        }
+
+        int block = position / BLOCK_SIZE;
+        int quantized = quantizeRank(rank);
+        blockRanks[position] = (byte) quantized;
+        if (quantized > (blockMaxRanks[block] & 0xFF)) {
+            blockMaxRanks[block] = (byte) quantized;
+            maxRank = Math.max(maxRank, dequantizeRank(quantized));
+        }
+        return true;
+    }
+
+    private int lastPageId() {
+        return tailSize > 0 ? tailIds[tailSize - 1] : blockLastIds[blockCount - 1];
+    }
+
+    private void appendToTail(int pageId, float rank) {
+        maxRank = Math.max(maxRank, rank);
+        tailIds[tailSize] = pageId;
+        tailRanks[tailSize] = rank;
+        tailSize++;
+        if (tailSize == BLOCK_SIZE) {
+            sealTail();
+        }
+    }
+
+    private void insertIntoTail(int pageId, float rank) {
+        maxRank = Math.max(maxRank, rank);
+        int position = Arrays.binarySearch(tailIds, 0, tailSize, pageId);
+        if (position >= 0) {
+            tailRanks[position] = rank;
+            return;
+        }
+        position = -position - 1;
+
+        System.arraycopy(tailIds, position, tailIds, position + 1, tailSize - position);
+        System.arraycopy(tailRanks, position, tailRanks, position + 1, tailSize - position);
+        tailIds[position] = pageId;
+        tailRanks[position] = rank;
+        tailSize++;
+        if (tailSize == BLOCK_SIZE) {
+            sealTail();
+        }
+    }
+
+    private void rebuild(int[] pageIds, float[] ranks, int size) {
+        dataLength = 0;
+        blockCount = 0;
+        tailSize = 0;
+        maxRank = 0;
+        removedCount = 0;
+        addedCount = 0;
+        addedMaxRank = 0;
+        for (int i = 0; i < size; i++) {
+            appendToTail(pageIds[i], ranks[i]);
+        }
+    }
+
+    private void sealTail() {
+        if (blockCount == blockOffsets.length) {
+            int capacity = Math.max(4, blockCount * 2);
+            blockOffsets = Arrays.copyOf(blockOffsets, capacity);
+            blockLastIds = Arrays.copyOf(blockLastIds, capacity);
+            blockRanks = Arrays.copyOf(blockRanks, capacity * BLOCK_SIZE);
+            blockMaxRanks = Arrays.copyOf(blockMaxRanks, capacity);
+        }
+        ensureDataCapacity(dataLength + BLOCK_SIZE * 5);
+
+        blockOffsets[blockCount] = dataLength;
+        int previous = blockCount == 0 ? 0 : blockLastIds[blockCount - 1];
+        int blockMax = 0;
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            writeVByte(tailIds[i] - previous);
+            previous = tailIds[i];
+            int quantized = quantizeRank(tailRanks[i]);
+            blockRanks[blockCount * BLOCK_SIZE + i] = (byte) quantized;
+            blockMax = Math.max(blockMax, quantized);
+        }
+
+        blockLastIds[blockCount] = previous;
+        blockMaxRanks[blockCount] = (byte) blockMax;
+        maxRank = Math.max(maxRank, dequantizeRank(blockMax));
+        blockCount++;
+        tailSize = 0;
+    }
+
+    private void decodeAll(int[] pageIds, float[] ranks) {
+        for (int block = 0; block < blockCount; block++) {
+            decodeBlock(block, pageIds, block * BLOCK_SIZE);
+            for (int i = 0; i < BLOCK_SIZE; i++) {
+                ranks[block * BLOCK_SIZE + i] = dequantizeRank(blockRanks[block * BLOCK_SIZE + i] & 0xFF);
+            }
+        }
+        System.arraycopy(tailIds, 0, pageIds, blockCount * BLOCK_SIZE, tailSize);
+        System.arraycopy(tailRanks, 0, ranks, blockCount * BLOCK_SIZE, tailSize);
+    }
+
+    private void decodeBlock(int block, int[] target, int targetOffset) {
+        int position = blockOffsets[block];
+        int pageId = block == 0 ? 0 : blockLastIds[block - 1];
+
+        for (int i = 0; i < BLOCK_SIZE; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[position++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            pageId += delta;
+            target[targetOffset + i] = pageId;
+        }
+    }
+
+    private void writeVByte(int value) {
+        while ((value & ~0x7F) != 0) {
+            data[dataLength++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[dataLength++] = (byte) value;
+    }
+
+    private void ensureDataCapacity(int capacity) {
+        if (capacity > data.length) {
+            data = Arrays.copyOf(data, Math.max(capacity, data.length * 2));
+        }
+    }
+
+    private class Cursor implements PostingCursor {
+        private final int[] pageIds = new int[BLOCK_SIZE];
+        private int block = -1;
+        private int blockSize;
+        private int index = -1;
+        private int stored = -1;
+        private int live = -1;
+        private int added;
+        private int current = -1;
+        private boolean fromAdded;
+
+        @Override
+        public int next() {
+            if (current == NO_MORE_PAGES) return current;
+
+            if (current == -1 || !fromAdded) {
+                live = nextLive();
+            } else {
+                added++;
+            }
+            return pick();
+        }
+
+        @Override
+        public int advance(int target) {
+            if (current >= target) return current;
+
+            if (live < target) {
+                live = advanceStored(target);
+                while (live != NO_MORE_PAGES && isRemoved(live)) {
+                    live = nextStored();
+                }
+            }
+            if (added < addedCount && addedIds[added] < target) {
+                int position = Arrays.binarySearch(addedIds, added, addedCount, target);
+                added = position >= 0 ? position : -position - 1;
+            }
+            return pick();
+        }
+
+        private int pick() {
+            int pending = added < addedCount ? addedIds[added] : NO_MORE_PAGES;
+            fromAdded = pending < live;
+            return current = fromAdded ? pending : live;
+        }
+
+        private int nextLive() {
+            int pageId = nextStored();
+            while (pageId != NO_MORE_PAGES && isRemoved(pageId)) {
+                pageId = nextStored();
+            }
+            return pageId;
+        }
+
+        private int nextStored() {
+            if (stored == NO_MORE_PAGES) return stored;
+
+            if (block >= 0 && index + 1 < blockSize) {
+                index++;
+            } else if (!loadBlock(block + 1)) {
+                return stored = NO_MORE_PAGES;
+            }
+            return stored = pageIds[index];
+        }
+
+        private int advanceStored(int target) {
+            if (stored >= target) return stored;
+
+            int candidate = findBlock(Math.max(block, 0), target);
+            if (candidate != block && !loadBlock(candidate)) {
+                return stored = NO_MORE_PAGES;
+            }
+
+            index = Math.max(index, 0);
+            while (pageIds[index] < target) {
+                index++;
+            }
+            return stored = pageIds[index];
+        }
+
+        @Override
+        public float rank() {
+            if (fromAdded) return addedRanks[added];
+
+            return block < blockCount
+                    ? dequantizeRank(blockRanks[block * BLOCK_SIZE + index] & 0xFF)
+                    : tailRanks[index];
+        }
+
+        @Override
+        public float maxRank() {
+            return maxRank;
+        }
+
+        @Override
+        public float blockMaxRank() {
+            float blockMax = block < blockCount
+                    ? dequantizeRank(blockMaxRanks[block] & 0xFF)
+                    : maxRank;
+            return addedCount > 0 ? Math.max(blockMax, addedMaxRank) : blockMax;
+        }
+
+        private int findBlock(int from, int target) {
+            int low = from;
+            int high = blockCount - 1;
+
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (blockLastIds[middle] < target) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            if (low < blockCount) return low;
+            return (tailSize > 0 && tailIds[tailSize - 1] >= target) ? blockCount : blockCount + 1;
+        }
+
+        private boolean loadBlock(int next) {
+            block = next;
+            index = 0;
+
+            if (next < blockCount) {
+                decodeBlock(next, pageIds, 0);
+                blockSize = BLOCK_SIZE;
+                return true;
+            }
+            if (next == blockCount && tailSize > 0) {
+                System.arraycopy(tailIds, 0, pageIds, 0, tailSize);
+                blockSize = tailSize;
+                return true;
+            }
+            blockSize = 0;
+            return false;
+        }
+    }
+}
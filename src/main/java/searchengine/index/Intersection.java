@@ -0,0 +1,41 @@
+package searchengine.index;
+
+import java.util.function.IntPredicate;
+
+final class Intersection {
+
+    private Intersection() {
+    }
+
+    static void collect(PostingCursor[] cursors, QueryScorer scorer, IntPredicate pageFilter,
+                        TopKCollector collector) {
+        PostingCursor lead = cursors[0];
+        double maxScore = scorer.maxScore(cursors);
+
+        int pageId = lead.next();
+
+        candidates:
+        while (pageId != PostingCursor.NO_MORE_PAGES) {
+            if (!pageFilter.test(pageId)) {
+                pageId = lead.next();
+                continue;
+            }
+
+            for (int j = 1; j < cursors.length; j++) {
+                int found = cursors[j].advance(pageId);
+                if (found != pageId) {
+                    pageId = (found == PostingCursor.NO_MORE_PAGES) ? found : lead.advance(found);
+                    continue candidates;
+                }
+            }
+
+            double threshold = collector.threshold();
+            if (maxScore < threshold || scorer.blockMaxScore(cursors) < threshold) {
+                collector.countMatch();
+            } else {
+                collector.offer(pageId, scorer.score(cursors, pageId));
+            }
+            pageId = lead.next();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package searchengine.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import searchengine.dto.search.PageSummary;
+import searchengine.repositories.PageRepository;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "memory")
+public class InvertedIndex implements SearchBackend {
+    private static final int MIN_TOMBSTONES_TO_COMPACT = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PageRepository pageRepository;
+    private final RelevanceModel relevanceModel;
+    private final Supplier<PostingList> postingListFactory;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> siteIds = new HashMap<>();
+    private int[] pageSites = new int[1024];
+    private int[] pageLengths = new int[1024];
+    private long totalLength;
+    private int livePages;
+    private int tombstones;
+
+    public InvertedIndex(DataSource dataSource,
+                         PageRepository pageRepository,
+                         RelevanceModel relevanceModel,
+                         @Value("${search.postings-format:raw}") String postingsFormat) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.pageRepository = pageRepository;
+        this.relevanceModel = relevanceModel;
+        this.jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.postingListFactory = "compressed".equals(postingsFormat)
+                ? CompressedPostingList::new
+                : ArrayPostingList::new;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        lock.writeLock().lock();
+        try {
+            jdbcTemplate.query("SELECT id, url FROM site",
+                    (RowCallbackHandler) rs -> siteIds.put(rs.getString("url"), rs.getInt("id")));
+
+            jdbcTemplate.query("""
+                SELECT si.page_id, l.site_id, l.lemma, si.rank_value
+                FROM search_index si
+                JOIN lemma l ON l.id = si.lemma_id
+                ORDER BY si.page_id
+            """, (RowCallbackHandler) rs -> {
+                int pageId = rs.getInt("page_id");
+                float rank = rs.getFloat("rank_value");
+                if (siteOf(pageId) == 0) {
+                    setSite(pageId, rs.getInt("site_id"));
+                    livePages++;
+                }
+                pageLengths[pageId] += (int) rank;
+                totalLength += (int) rank;
+                postings.computeIfAbsent(rs.getString("lemma"), lemma -> postingListFactory.get())
+                        .add(pageId, rank);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPageIndexed(PageIndexedEvent event) {
+        lock.writeLock().lock();
+        try {
+            siteIds.put(event.getSiteUrl(), event.getSiteId());
+            if (siteOf(event.getPageId()) == 0) {
+                livePages++;
+            }
+            setSite(event.getPageId(), event.getSiteId());
+
+            int length = event.getLemmas().values().stream().mapToInt(Integer::intValue).sum();
+            totalLength += length - pageLengths[event.getPageId()];
+            pageLengths[event.getPageId()] = length;
+
+            for (String lemma : event.getPreviousRanks().keySet()) {
+                if (event.getLemmas().containsKey(lemma)) continue;
+                PostingList list = postings.get(lemma);
+                if (list == null) continue;
+                list.remove(event.getPageId());
+                if (list.size() == 0) postings.remove(lemma);
+            }
+
+            event.getLemmas().forEach((lemma, count) -> {
+                Float previousRank = event.getPreviousRanks().get(lemma);
+                if (previousRank != null && previousRank == count.floatValue()) return;
+                postings.computeIfAbsent(lemma, l -> postingListFactory.get()).add(event.getPageId(), count);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPageRemoved(PageRemovedEvent event) {
+        lock.writeLock().lock();
+        try {
+            removePage(event.getPageId());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSiteRemoved(SiteRemovedEvent event) {
+        lock.writeLock().lock();
+        try {
+            for (int pageId = 0; pageId < pageSites.length; pageId++) {
+                if (pageSites[pageId] == event.getSiteId()) {
+                    removePage(pageId);
+                }
+            }
+            siteIds.values().removeIf(siteId -> siteId == event.getSiteId());
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public RankedPages rank(List<String> lemmas, String siteUrl, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            int siteId = 0;
+            if (siteUrl != null) {
+                Integer id = siteIds.get(siteUrl);
+                if (id == null) return RankedPages.EMPTY;
+                siteId = id;
+            }
+
+            PostingList[] lists = new PostingList[lemmas.size()];
+            for (int i = 0; i < lists.length; i++) {
+                lists[i] = postings.get(lemmas.get(i));
+                if (lists[i] == null) return RankedPages.EMPTY;
+            }
+            Arrays.sort(lists, Comparator.comparingInt(PostingList::size));
+
+            return intersect(lists, siteId, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<PageSummary> findPages(Collection<Integer> pageIds) {
+        return pageRepository.findSummariesByIdIn(pageIds);
+    }
+
+    private RankedPages intersect(PostingList[] lists, int siteId, int offset, int limit) {
+        TopKCollector collector = new TopKCollector(offset + limit);
+        PostingCursor[] cursors = new PostingCursor[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            cursors[i] = lists[i].cursor();
+        }
+
+        double[] termWeights = new double[lists.length];
+        for (int i = 0; i < lists.length; i++) {
+            termWeights[i] = relevanceModel.termWeight(lists[i].size(), livePages);
+        }
+        double averageLength = livePages == 0 ? 0 : (double) totalLength / livePages;
+        QueryScorer scorer = new QueryScorer(relevanceModel, termWeights, pageId -> pageLengths[pageId], averageLength);
+
+        Intersection.collect(cursors, scorer, pageId -> {
+            int pageSite = siteOf(pageId);
+            return pageSite != 0 && (siteId == 0 || pageSite == siteId);
+        }, collector);
+
+        return collector.total() == 0 ? RankedPages.EMPTY : collector.toRankedPages(offset);
+    }
+
+    private void removePage(int pageId) {
+        if (siteOf(pageId) == 0) return;
+
+        pageSites[pageId] = 0;
+        totalLength -= pageLengths[pageId];
+        pageLengths[pageId] = 0;
+        livePages--;
+        tombstones++;
+    }
+
+    private void compactIfNeeded() {
+        if (tombstones < MIN_TOMBSTONES_TO_COMPACT || tombstones < livePages / 4) return;
+
+        postings.values().forEach(list -> list.retain(pageId -> siteOf(pageId) != 0));
+        postings.values().removeIf(list -> list.size() == 0);
+        tombstones = 0;
+    }
+
+    private int siteOf(int pageId) {
+        return pageId < pageSites.length ? pageSites[pageId] : 0;
+    }
+
+    private void setSite(int pageId, int siteId) {
+        if (pageId >= pageSites.length) {
+            int capacity = Math.max(pageSites.length * 2, pageId + 1);
+            pageSites = Arrays.copyOf(pageSites, capacity);
+            pageLengths = Arrays.copyOf(pageLengths, capacity);
+        }
+        pageSites[pageId] = siteId;
+    }
+}
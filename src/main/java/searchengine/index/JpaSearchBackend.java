@@ -0,0 +1,65 @@
+package searchengine.index;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import searchengine.dto.search.MatchStatistics;
+import searchengine.dto.search.PageRelevance;
+import searchengine.dto.search.PageSummary;
+import searchengine.repositories.PageRepository;
+import searchengine.repositories.SearchIndexRepository;
+
+import java.util.Collection;
+import java.util.List;
+
+@RequiredArgsConstructor
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaSearchBackend implements SearchBackend {
+    private final SearchIndexRepository searchIndexRepository;
+    private final PageRepository pageRepository;
+    private final RelevanceModel relevanceModel;
+    private final LemmaStatistics lemmaStatistics;
+
+    @Override
+    public RankedPages rank(List<String> lemmas, String siteUrl, int offset, int limit) {
+        MatchStatistics statistics;
+        List<PageRelevance> ranked;
+
+        if (relevanceModel instanceof Bm25RelevanceModel bm25) {
+            List<Long> frequencies = lemmas.stream()
+                    .map(lemma -> lemmaStatistics.getFrequency(lemma, null))
+                    .toList();
+            long pageCount = lemmaStatistics.getPageCount(null);
+            double avgLength = Math.max(1, (double) lemmaStatistics.getTotalLength(null) / Math.max(pageCount, 1));
+
+            statistics = searchIndexRepository.findBm25MatchStatisticsByLemmas(lemmas, lemmas.size(), siteUrl,
+                    frequencies, pageCount, avgLength, bm25.getK1(), bm25.getB());
+            if (statistics.getTotal() == 0 || statistics.getMaxRelevance() == null) return RankedPages.EMPTY;
+
+            ranked = searchIndexRepository.findBm25RelevanceByLemmas(lemmas, lemmas.size(), siteUrl,
+                    frequencies, pageCount, avgLength, bm25.getK1(), bm25.getB(), offset, limit);
+        } else {
+            statistics = searchIndexRepository.findMatchStatisticsByLemmas(lemmas, lemmas.size(), siteUrl);
+            if (statistics.getTotal() == 0 || statistics.getMaxRelevance() == null) return RankedPages.EMPTY;
+
+            ranked = searchIndexRepository.findRelevanceByLemmas(
+                    lemmas, lemmas.size(), siteUrl, offset, limit);
+        }
+
+        int[] pageIds = new int[ranked.size()];
+        double[] scores = new double[ranked.size()];
+
+        for (int i = 0; i < ranked.size(); i++) {
+            pageIds[i] = ranked.get(i).getPageId();
+            scores[i] = ranked.get(i).getRelevance();
+        }
+
+        return new RankedPages(statistics.getTotal().intValue(), statistics.getMaxRelevance(), pageIds, scores);
+    }
+
+    @Override
+    public List<PageSummary> findPages(Collection<Integer> pageIds) {
+        return pageRepository.findSummariesByIdIn(pageIds);
+    }
+}
@@ -0,0 +1,130 @@
+package searchengine.index;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class LemmaStatistics {
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<Integer, SiteStatistics> sites = new ConcurrentHashMap<>();
+    private final Map<String, Integer> siteIds = new ConcurrentHashMap<>();
+
+    public LemmaStatistics(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void load() {
+        sites.clear();
+        siteIds.clear();
+
+        jdbcTemplate.query("SELECT id, url FROM site",
+                (RowCallbackHandler) rs -> siteIds.put(rs.getString("url"), rs.getInt("id")));
+
+        jdbcTemplate.query("SELECT site_id, COUNT(*) AS pages, SUM(length) AS length FROM page GROUP BY site_id",
+                (RowCallbackHandler) rs -> {
+                    SiteStatistics site = site(rs.getInt("site_id"));
+                    site.pageCount.set(rs.getInt("pages"));
+                    site.totalLength.set(rs.getLong("length"));
+                });
+
+        jdbcTemplate.query("SELECT site_id, lemma, frequency FROM lemma WHERE frequency > 0",
+                (RowCallbackHandler) rs -> site(rs.getInt("site_id")).frequencies
+                        .put(rs.getString("lemma"), rs.getInt("frequency")));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPageIndexed(PageIndexedEvent event) {
+        siteIds.put(event.getSiteUrl(), event.getSiteId());
+        SiteStatistics site = site(event.getSiteId());
+        if (event.isNewPage()) {
+            site.pageCount.incrementAndGet();
+        }
+        int length = event.getLemmas().values().stream().mapToInt(Integer::intValue).sum();
+        site.totalLength.addAndGet(length - event.getPreviousLength());
+        event.getLemmas().keySet().stream()
+                .filter(lemma -> !event.getPreviousRanks().containsKey(lemma))
+                .forEach(lemma -> site.frequencies.merge(lemma, 1, Integer::sum));
+        event.getPreviousRanks().keySet().stream()
+                .filter(lemma -> !event.getLemmas().containsKey(lemma))
+                .forEach(lemma -> decrement(site, lemma));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onPageRemoved(PageRemovedEvent event) {
+        SiteStatistics site = site(event.getSiteId());
+        site.pageCount.decrementAndGet();
+        site.totalLength.addAndGet(-event.getLength());
+        event.getLemmas().forEach(lemma -> decrement(site, lemma));
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onSiteRemoved(SiteRemovedEvent event) {
+        sites.remove(event.getSiteId());
+        siteIds.remove(event.getSiteUrl(), event.getSiteId());
+    }
+
+    public List<String> getSiteUrls() {
+        return List.copyOf(siteIds.keySet());
+    }
+
+    public long getPageCount(String siteUrl) {
+        if (siteUrl == null) {
+            return sites.values().stream().mapToLong(site -> site.pageCount.get()).sum();
+        }
+        SiteStatistics site = siteStatistics(siteUrl);
+        return site != null ? site.pageCount.get() : 0;
+    }
+
+    public long getTotalLength(String siteUrl) {
+        if (siteUrl == null) {
+            return sites.values().stream().mapToLong(site -> site.totalLength.get()).sum();
+        }
+        SiteStatistics site = siteStatistics(siteUrl);
+        return site != null ? site.totalLength.get() : 0;
+    }
+
+    public long getFrequency(String lemma, String siteUrl) {
+        if (siteUrl == null) {
+            return sites.values().stream().mapToLong(site -> site.frequencies.getOrDefault(lemma, 0)).sum();
+        }
+        SiteStatistics site = siteStatistics(siteUrl);
+        return site != null ? site.frequencies.getOrDefault(lemma, 0) : 0;
+    }
+
+    private void decrement(SiteStatistics site, String lemma) {
+        site.frequencies.computeIfPresent(lemma, (l, frequency) -> frequency > 1 ? frequency - 1 : null);
+    }
+
+    private SiteStatistics siteStatistics(String siteUrl) {
+        Integer siteId = siteIds.get(siteUrl);
+        return siteId != null ? sites.get(siteId) : null;
+    }
+
+    private SiteStatistics site(int siteId) {
+        return sites.computeIfAbsent(siteId, id -> new SiteStatistics());
+    }
+
+    private static class SiteStatistics {
+        private final AtomicInteger pageCount = new AtomicInteger();
+        private final AtomicLong totalLength = new AtomicLong();
+        private final Map<String, Integer> frequencies = new ConcurrentHashMap<>();
+    }
+}
@@ -0,0 +1,68 @@
+package searchengine.index;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class MappedChunks {
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+
+    private final long[] starts;
+    private final ByteBuffer[] buffers;
+
+    private MappedChunks(long[] starts, ByteBuffer[] buffers) {
+        this.starts = starts;
+        this.buffers = buffers;
+    }
+
+    static MappedChunks map(Path file, long[] recordStarts) throws IOException {
+        return map(file, recordStarts, MAX_CHUNK_SIZE);
+    }
+
+    static MappedChunks map(Path file, long[] recordStarts, long maxChunkSize) throws IOException {
+        long[] records = recordStarts.clone();
+        Arrays.sort(records);
+
+        List<Long> starts = new ArrayList<>();
+        List<ByteBuffer> buffers = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long chunkStart = 0;
+
+            for (int i = 0; i < records.length; i++) {
+                long recordEnd = (i + 1 < records.length) ? records[i + 1] : size;
+                if (recordEnd - chunkStart <= maxChunkSize) continue;
+
+                if (records[i] > chunkStart) {
+                    starts.add(chunkStart);
+                    buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, records[i] - chunkStart));
+                    chunkStart = records[i];
+                }
+                if (recordEnd - chunkStart > maxChunkSize) {
+                    throw new IOException("Record at " + records[i] + " in " + file + " exceeds " + maxChunkSize + " bytes");
+                }
+            }
+
+            starts.add(chunkStart);
+            buffers.add(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, size - chunkStart));
+        }
+
+        return new MappedChunks(starts.stream().mapToLong(Long::longValue).toArray(),
+                buffers.toArray(ByteBuffer[]::new));
+    }
+
+    ByteBuffer at(long offset) {
+        int chunk = Arrays.binarySearch(starts, offset);
+        if (chunk < 0) chunk = -chunk - 2;
+
+        ByteBuffer buffer = buffers[chunk];
+        int position = (int) (offset - starts[chunk]);
+        return buffer.slice(position, buffer.limit() - position);
+    }
+}
@@ -0,0 +1,18 @@
+package searchengine.index;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+
+@Getter
+@RequiredArgsConstructor
+public class PageIndexedEvent {
+    private final int siteId;
+    private final String siteUrl;
+    private final int pageId;
+    private final Map<String, Integer> lemmas;
+    private final Map<String, Float> previousRanks;
+    private final boolean newPage;
+    private final int previousLength;
+}
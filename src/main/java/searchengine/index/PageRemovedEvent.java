@@ -0,0 +1,16 @@
+package searchengine.index;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@RequiredArgsConstructor
+public class PageRemovedEvent {
+    private final int siteId;
+    private final String siteUrl;
+    private final int pageId;
+    private final List<String> lemmas;
+    private final int length;
+}
@@ -0,0 +1,11 @@
+package searchengine.index;
+
+interface PostingCursor {
+    int NO_MORE_PAGES = Integer.MAX_VALUE;
+
+    int next();
+    int advance(int target);
+    float rank();
+    float maxRank();
+    float blockMaxRank();
+}
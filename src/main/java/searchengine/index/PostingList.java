@@ -0,0 +1,11 @@
+package searchengine.index;
+
+import java.util.function.IntPredicate;
+
+interface PostingList {
+    int size();
+    void add(int pageId, float rank);
+    void remove(int pageId);
+    void retain(IntPredicate pageFilter);
+    PostingCursor cursor();
+}
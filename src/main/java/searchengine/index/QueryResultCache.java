@@ -0,0 +1,85 @@
+package searchengine.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class QueryResultCache {
+    private final Cache<Key, RankedPages> cache;
+    private final Map<String, AtomicLong> siteGenerations = new ConcurrentHashMap<>();
+    private final AtomicLong globalGeneration = new AtomicLong();
+    private final boolean globalStatistics;
+
+    public QueryResultCache(RelevanceModel relevanceModel,
+                            @Value("${search.result-cache.max-entries:10000}") long maxEntries) {
+        this.globalStatistics = relevanceModel.usesCollectionStatistics();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .recordStats()
+                .build();
+    }
+
+    public RankedPages get(List<String> lemmas, String siteUrl, int offset, int limit, Supplier<RankedPages> loader) {
+        long siteGeneration = (siteUrl != null) ? siteGeneration(siteUrl).get() : 0;
+        long generation = (siteUrl == null || globalStatistics) ? globalGeneration.get() : 0;
+        Key key = new Key(lemmas.stream().sorted().toList(), siteUrl, offset, limit, siteGeneration, generation);
+        return cache.get(key, k -> loader.get());
+    }
+
+    public void invalidateSite(String siteUrl) {
+        siteGeneration(siteUrl).incrementAndGet();
+        globalGeneration.incrementAndGet();
+    }
+
+    public void invalidateAll() {
+        siteGenerations.values().forEach(AtomicLong::incrementAndGet);
+        globalGeneration.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPageIndexed(PageIndexedEvent event) {
+        invalidateSite(event.getSiteUrl());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPageRemoved(PageRemovedEvent event) {
+        invalidateSite(event.getSiteUrl());
+    }
+
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSiteRemoved(SiteRemovedEvent event) {
+        invalidateSite(event.getSiteUrl());
+    }
+
+    public CacheStats getCacheStats() {
+        return cache.stats();
+    }
+
+    public long getCacheSize() {
+        return cache.estimatedSize();
+    }
+
+    private AtomicLong siteGeneration(String siteUrl) {
+        return siteGenerations.computeIfAbsent(siteUrl, url -> new AtomicLong());
+    }
+
+    private record Key(List<String> lemmas, String siteUrl, int offset, int limit,
+                       long siteGeneration, long globalGeneration) {
+    }
+}
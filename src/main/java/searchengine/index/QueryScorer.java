@@ -0,0 +1,43 @@
+package searchengine.index;
+
+import java.util.function.IntUnaryOperator;
+
+class QueryScorer {
+    private final RelevanceModel relevanceModel;
+    private final double[] termWeights;
+    private final IntUnaryOperator documentLengths;
+    private final double averageDocumentLength;
+
+    QueryScorer(RelevanceModel relevanceModel, double[] termWeights,
+                IntUnaryOperator documentLengths, double averageDocumentLength) {
+        this.relevanceModel = relevanceModel;
+        this.termWeights = termWeights;
+        this.documentLengths = documentLengths;
+        this.averageDocumentLength = averageDocumentLength;
+    }
+
+    double score(PostingCursor[] cursors, int pageId) {
+        int length = relevanceModel.usesDocumentLength() ? documentLengths.applyAsInt(pageId) : 0;
+        double score = 0;
+        for (int i = 0; i < cursors.length; i++) {
+            score += relevanceModel.score(cursors[i].rank(), termWeights[i], length, averageDocumentLength);
+        }
+        return score;
+    }
+
+    double maxScore(PostingCursor[] cursors) {
+        double bound = 0;
+        for (int i = 0; i < cursors.length; i++) {
+            bound += relevanceModel.maxScore(cursors[i].maxRank(), termWeights[i]);
+        }
+        return bound;
+    }
+
+    double blockMaxScore(PostingCursor[] cursors) {
+        double bound = 0;
+        for (int i = 0; i < cursors.length; i++) {
+            bound += relevanceModel.maxScore(cursors[i].blockMaxRank(), termWeights[i]);
+        }
+        return bound;
+    }
+}
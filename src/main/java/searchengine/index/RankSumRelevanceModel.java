@@ -0,0 +1,34 @@
+package searchengine.index;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "search.relevance", havingValue = "rank-sum", matchIfMissing = true)
+public class RankSumRelevanceModel implements RelevanceModel {
+
+    @Override
+    public double termWeight(long documentFrequency, long documentCount) {
+        return 1;
+    }
+
+    @Override
+    public double score(float rank, double termWeight, int documentLength, double averageDocumentLength) {
+        return rank;
+    }
+
+    @Override
+    public double maxScore(float maxRank, double termWeight) {
+        return maxRank;
+    }
+
+    @Override
+    public boolean usesDocumentLength() {
+        return false;
+    }
+
+    @Override
+    public boolean usesCollectionStatistics() {
+        return false;
+    }
+}
@@ -0,0 +1,24 @@
+package searchengine.index;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class RankedPages {
+    public static final RankedPages EMPTY = new RankedPages(0, 0, new int[0], new double[0]);
+
+    private final int total;
+    private final double maxScore;
+    private final int[] pageIds;
+    private final double[] scores;
+    private final boolean partial;
+
+    public RankedPages(int total, double maxScore, int[] pageIds, double[] scores) {
+        this(total, maxScore, pageIds, scores, false);
+    }
+
+    public int size() {
+        return pageIds.length;
+    }
+}
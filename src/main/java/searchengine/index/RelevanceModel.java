@@ -0,0 +1,13 @@
+package searchengine.index;
+
+public interface RelevanceModel {
+    double termWeight(long documentFrequency, long documentCount);
+
+    double score(float rank, double termWeight, int documentLength, double averageDocumentLength);
+
+    double maxScore(float maxRank, double termWeight);
+
+    boolean usesDocumentLength();
+
+    boolean usesCollectionStatistics();
+}
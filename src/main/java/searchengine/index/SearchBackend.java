@@ -0,0 +1,12 @@
+package searchengine.index;
+
+import searchengine.dto.search.PageSummary;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface SearchBackend {
+    RankedPages rank(List<String> lemmas, String siteUrl, int offset, int limit);
+
+    List<PageSummary> findPages(Collection<Integer> pageIds);
+}
@@ -0,0 +1,164 @@
+package searchengine.index;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+class Segment {
+    static final int FORMAT_VERSION = 3;
+    static final int DICTIONARY_ENTRY_OVERHEAD = 2 + 8;
+    private static final int DICTIONARY_HEADER_SIZE = 8;
+    private static final int PAGE_INDEX_ENTRY_SIZE = 4 + 8 + 4;
+
+    @Getter
+    private final int siteId;
+    @Getter
+    private final Path directory;
+    @Getter
+    private final String siteUrl;
+    @Getter
+    private final String siteName;
+    @Getter
+    private final int pageCount;
+    @Getter
+    private final long totalLength;
+
+    private final ByteBuffer lemmas;
+    private final MappedChunks postings;
+    private final MappedChunks pages;
+    private final ByteBuffer pageIndex;
+    private final int lemmaCount;
+    private final int pageIndexStart;
+
+    private Segment(int siteId, Path directory) throws IOException {
+        this.siteId = siteId;
+        this.directory = directory;
+        this.lemmas = map(directory.resolve(SegmentWriter.LEMMAS_FILE));
+        this.pageIndex = map(directory.resolve(SegmentWriter.PAGE_INDEX_FILE));
+
+        ByteBuffer header = pageIndex.duplicate();
+        this.siteUrl = readString(header);
+        this.siteName = readString(header);
+        this.pageCount = header.getInt();
+        this.totalLength = header.getLong();
+        this.pageIndexStart = header.position();
+        if (lemmas.getInt(0) != FORMAT_VERSION) {
+            throw new IOException("Unsupported segment format in " + directory);
+        }
+        this.lemmaCount = lemmas.getInt(4);
+
+        long[] postingsOffsets = new long[lemmaCount];
+        int entriesStart = DICTIONARY_HEADER_SIZE + 4 * lemmaCount;
+        for (int i = 0; i < lemmaCount; i++) {
+            int entry = entriesStart + lemmas.getInt(DICTIONARY_HEADER_SIZE + 4 * i);
+            postingsOffsets[i] = lemmas.getLong(entry + 2 + (lemmas.getShort(entry) & 0xFFFF));
+        }
+        this.postings = MappedChunks.map(directory.resolve(SegmentWriter.POSTINGS_FILE), postingsOffsets);
+
+        long[] pageOffsets = new long[pageCount];
+        for (int i = 0; i < pageCount; i++) {
+            pageOffsets[i] = pageIndex.getLong(pageIndexStart + i * PAGE_INDEX_ENTRY_SIZE + 4);
+        }
+        this.pages = MappedChunks.map(directory.resolve(SegmentWriter.PAGES_FILE), pageOffsets);
+    }
+
+    static Segment open(int siteId, Path directory) throws IOException {
+        return new Segment(siteId, directory);
+    }
+
+    SegmentPostingCursor cursor(String lemma) {
+        int entry = findLemma(lemma.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) return null;
+
+        int length = lemmas.getShort(entry) & 0xFFFF;
+        long offset = lemmas.getLong(entry + 2 + length);
+        return new SegmentPostingCursor(postings.at(offset), 0);
+    }
+
+    SegmentPage page(int pageId) {
+        int position = findPage(pageId);
+        if (position < 0) return null;
+
+        ByteBuffer entry = pages.at(pageIndex.getLong(position + 4));
+        int length = entry.getInt();
+        String path = readString(entry);
+        String title = readString(entry);
+        String text = readString(entry);
+        return new SegmentPage(pageId, path, title, text, siteUrl, siteName, length);
+    }
+
+    int pageLength(int pageId) {
+        int position = findPage(pageId);
+        return position < 0 ? 0 : pageIndex.getInt(position + 12);
+    }
+
+    private int findPage(int pageId) {
+        int low = 0;
+        int high = pageCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int position = pageIndexStart + middle * PAGE_INDEX_ENTRY_SIZE;
+            int candidate = pageIndex.getInt(position);
+
+            if (candidate < pageId) {
+                low = middle + 1;
+            } else if (candidate > pageId) {
+                high = middle - 1;
+            } else {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private int findLemma(byte[] key) {
+        int entriesStart = DICTIONARY_HEADER_SIZE + 4 * lemmaCount;
+        int low = 0;
+        int high = lemmaCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int entry = entriesStart + lemmas.getInt(DICTIONARY_HEADER_SIZE + 4 * middle);
+            int comparison = compare(entry, key);
+
+            if (comparison < 0) {
+                low = middle + 1;
+            } else if (comparison > 0) {
+                high = middle - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    private int compare(int entry, byte[] key) {
+        int length = lemmas.getShort(entry) & 0xFFFF;
+        int common = Math.min(length, key.length);
+
+        for (int i = 0; i < common; i++) {
+            int difference = (lemmas.get(entry + 2 + i) & 0xFF) - (key[i] & 0xFF);
+            if (difference != 0) return difference;
+        }
+        return length - key.length;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
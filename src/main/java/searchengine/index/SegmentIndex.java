@@ -0,0 +1,289 @@
+package searchengine.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import searchengine.dto.search.PageSummary;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "search.engine", havingValue = "segment")
+public class SegmentIndex implements SearchBackend {
+    private static final Pattern SEGMENT_NAME = Pattern.compile("site-(\\d+)-(\\d+)");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RelevanceModel relevanceModel;
+    private final QueryResultCache queryResultCache;
+    private final Path segmentDir;
+    private final Map<Integer, Segment> segments = new ConcurrentHashMap<>();
+    private final Set<Integer> pendingBuilds = ConcurrentHashMap.newKeySet();
+    private final ExecutorService builder = Executors.newSingleThreadExecutor();
+
+    public SegmentIndex(DataSource dataSource,
+                        RelevanceModel relevanceModel,
+                        QueryResultCache queryResultCache,
+                        @Value("${search.segment-dir:segments}") String segmentDir) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.relevanceModel = relevanceModel;
+        this.queryResultCache = queryResultCache;
+        this.jdbcTemplate.setFetchSize(Integer.MIN_VALUE);
+        this.segmentDir = Paths.get(segmentDir);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(segmentDir);
+
+        Map<Integer, Path> latest = new HashMap<>();
+        List<Path> obsolete = new ArrayList<>();
+        try (Stream<Path> directories = Files.list(segmentDir)) {
+            for (Path directory : directories.toList()) {
+                Matcher matcher = SEGMENT_NAME.matcher(directory.getFileName().toString());
+                if (!matcher.matches() || !Files.exists(directory.resolve(SegmentWriter.PAGE_INDEX_FILE))) {
+                    obsolete.add(directory);
+                    continue;
+                }
+
+                int siteId = Integer.parseInt(matcher.group(1));
+                Path current = latest.get(siteId);
+                if (current == null || generation(current) < generation(directory)) {
+                    latest.put(siteId, directory);
+                    if (current != null) obsolete.add(current);
+                } else {
+                    obsolete.add(directory);
+                }
+            }
+        }
+
+        for (Map.Entry<Integer, Path> entry : latest.entrySet()) {
+            try {
+                segments.put(entry.getKey(), Segment.open(entry.getKey(), entry.getValue()));
+            } catch (IOException e) {
+                obsolete.add(entry.getValue());
+                onSiteIndexed(new SiteIndexedEvent(entry.getKey()));
+            }
+        }
+        obsolete.forEach(this::deleteDirectory);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSiteIndexed(SiteIndexedEvent event) {
+        int siteId = event.getSiteId();
+        if (pendingBuilds.add(siteId)) {
+            builder.execute(() -> {
+                pendingBuilds.remove(siteId);
+                build(siteId);
+            });
+        }
+    }
+
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSiteRemoved(SiteRemovedEvent event) {
+        Segment removed = segments.remove(event.getSiteId());
+        if (removed != null) {
+            queryResultCache.invalidateSite(removed.getSiteUrl());
+            deleteDirectory(removed.getDirectory());
+        }
+    }
+
+    @Override
+    public RankedPages rank(List<String> lemmas, String siteUrl, int offset, int limit) {
+        List<Segment> current = List.copyOf(segments.values());
+        SegmentPostingCursor[][] cursors = new SegmentPostingCursor[current.size()][lemmas.size()];
+        long[] frequencies = new long[lemmas.size()];
+        long documentCount = 0;
+        long totalLength = 0;
+
+        for (int s = 0; s < current.size(); s++) {
+            Segment segment = current.get(s);
+            documentCount += segment.getPageCount();
+            totalLength += segment.getTotalLength();
+            for (int i = 0; i < lemmas.size(); i++) {
+                cursors[s][i] = segment.cursor(lemmas.get(i));
+                if (cursors[s][i] != null) frequencies[i] += cursors[s][i].size();
+            }
+        }
+
+        double[] weights = new double[lemmas.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = relevanceModel.termWeight(frequencies[i], documentCount);
+        }
+        double averageLength = documentCount == 0 ? 0 : (double) totalLength / documentCount;
+        TopKCollector collector = new TopKCollector(offset + limit);
+
+        segments:
+        for (int s = 0; s < current.size(); s++) {
+            Segment segment = current.get(s);
+            if (siteUrl != null && !siteUrl.equals(segment.getSiteUrl())) continue;
+
+            SegmentPostingCursor[] segmentCursors = cursors[s];
+            Integer[] order = new Integer[segmentCursors.length];
+            for (int i = 0; i < order.length; i++) {
+                if (segmentCursors[i] == null) continue segments;
+                order[i] = i;
+            }
+            Arrays.sort(order, Comparator.comparingInt(i -> segmentCursors[i].size()));
+
+            PostingCursor[] sortedCursors = new PostingCursor[order.length];
+            double[] sortedWeights = new double[order.length];
+            for (int i = 0; i < order.length; i++) {
+                sortedCursors[i] = segmentCursors[order[i]];
+                sortedWeights[i] = weights[order[i]];
+            }
+
+            QueryScorer scorer = new QueryScorer(relevanceModel, sortedWeights, segment::pageLength, averageLength);
+            Intersection.collect(sortedCursors, scorer, pageId -> true, collector);
+        }
+
+        return collector.total() == 0 ? RankedPages.EMPTY : collector.toRankedPages(offset);
+    }
+
+    @Override
+    public List<PageSummary> findPages(Collection<Integer> pageIds) {
+        List<PageSummary> pages = new ArrayList<>();
+        for (Integer pageId : pageIds) {
+            for (Segment segment : segments.values()) {
+                SegmentPage page = segment.page(pageId);
+                if (page != null) {
+                    pages.add(page);
+                    break;
+                }
+            }
+        }
+        return pages;
+    }
+
+    private void build(int siteId) {
+        List<Map<String, Object>> site = jdbcTemplate.queryForList("SELECT url, name FROM site WHERE id = ?", siteId);
+        if (site.isEmpty()) return;
+
+        Path directory = segmentDir.resolve("site-" + siteId + "-" + System.currentTimeMillis());
+        try {
+            try (SegmentWriter writer = new SegmentWriter(directory)) {
+                writePages(siteId, writer);
+                writePostings(siteId, writer);
+                writer.finish((String) site.get(0).get("url"), (String) site.get(0).get("name"));
+            }
+
+            Segment segment = Segment.open(siteId, directory);
+            Segment previous = segments.put(siteId, segment);
+            queryResultCache.invalidateSite(segment.getSiteUrl());
+            if (previous != null) {
+                deleteDirectory(previous.getDirectory());
+            }
+        } catch (IOException e) {
+            deleteDirectory(directory);
+            throw new UncheckedIOException(e);
+        } catch (RuntimeException e) {
+            deleteDirectory(directory);
+            throw e;
+        }
+    }
+
+    private void writePages(int siteId, SegmentWriter writer) {
+        jdbcTemplate.query("""
+            SELECT p.id, p.path, p.title, p.text, p.length
+            FROM page p
+            WHERE p.site_id = ?
+            ORDER BY p.id
+        """, (RowCallbackHandler) rs -> {
+            try {
+                writer.addPage(rs.getInt("id"), rs.getString("path"), rs.getString("title"),
+                        rs.getString("text"), rs.getInt("length"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }, siteId);
+    }
+
+    private void writePostings(int siteId, SegmentWriter writer) {
+        PostingBuffer buffer = new PostingBuffer();
+
+        jdbcTemplate.query("""
+            SELECT si.lemma_id, l.lemma, si.page_id, si.rank_value
+            FROM search_index si
+            JOIN lemma l ON l.id = si.lemma_id
+            WHERE l.site_id = ?
+            ORDER BY si.lemma_id, si.page_id
+        """, (RowCallbackHandler) rs -> {
+            int lemmaId = rs.getInt("lemma_id");
+            if (lemmaId != buffer.lemmaId) {
+                buffer.flushTo(writer);
+                buffer.lemmaId = lemmaId;
+                buffer.lemma = rs.getString("lemma");
+            }
+            buffer.add(rs.getInt("page_id"), rs.getFloat("rank_value"));
+        }, siteId);
+
+        buffer.flushTo(writer);
+    }
+
+    private long generation(Path directory) {
+        Matcher matcher = SEGMENT_NAME.matcher(directory.getFileName().toString());
+        return matcher.matches() ? Long.parseLong(matcher.group(2)) : 0;
+    }
+
+    private void deleteDirectory(Path directory) {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static class PostingBuffer {
+        private int lemmaId = -1;
+        private String lemma;
+        private int[] pageIds = new int[1024];
+        private float[] ranks = new float[1024];
+        private int size;
+
+        private void add(int pageId, float rank) {
+            if (size == pageIds.length) {
+                pageIds = Arrays.copyOf(pageIds, size * 2);
+                ranks = Arrays.copyOf(ranks, size * 2);
+            }
+            pageIds[size] = pageId;
+            ranks[size] = rank;
+            size++;
+        }
+
+        private void flushTo(SegmentWriter writer) {
+            if (size == 0) return;
+            try {
+                writer.addPostings(lemma, pageIds, ranks, size);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            size = 0;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package searchengine.index;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import searchengine.dto.search.PageSummary;
+
+@Getter
+@RequiredArgsConstructor
+public class SegmentPage implements PageSummary {
+    private final Integer id;
+    private final String path;
+    private final String title;
+    private final String text;
+    private final String siteUrl;
+    private final String siteName;
+    private final int length;
+}
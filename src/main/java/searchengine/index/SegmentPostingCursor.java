@@ -0,0 +1,127 @@
+package searchengine.index;
+
+import java.nio.ByteBuffer;
+
+class SegmentPostingCursor implements PostingCursor {
+    private static final int BLOCK_SIZE = CompressedPostingList.BLOCK_SIZE;
+    private static final int BLOCK_ENTRY_SIZE = 12;
+
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int blockCount;
+    private final float maxRank;
+    private final int blockTableStart;
+    private final int dataStart;
+    private final int ranksStart;
+    private final int[] pageIds = new int[BLOCK_SIZE];
+    private int block = -1;
+    private int blockSize;
+    private int index = -1;
+    private int current = -1;
+
+    SegmentPostingCursor(ByteBuffer buffer, int offset) {
+        this.buffer = buffer;
+        this.count = buffer.getInt(offset);
+        this.blockCount = buffer.getInt(offset + 4);
+        int dataLength = buffer.getInt(offset + 8);
+        this.maxRank = buffer.getFloat(offset + 12);
+        this.blockTableStart = offset + 16;
+        this.dataStart = blockTableStart + blockCount * BLOCK_ENTRY_SIZE;
+        this.ranksStart = dataStart + dataLength;
+    }
+
+    int size() {
+        return count;
+    }
+
+    @Override
+    public int next() {
+        if (current == NO_MORE_PAGES) return current;
+
+        if (block >= 0 && index + 1 < blockSize) {
+            index++;
+        } else if (!loadBlock(block + 1)) {
+            return current = NO_MORE_PAGES;
+        }
+        return current = pageIds[index];
+    }
+
+    @Override
+    public int advance(int target) {
+        if (current >= target) return current;
+
+        int candidate = findBlock(Math.max(block, 0), target);
+        if (candidate != block && !loadBlock(candidate)) {
+            return current = NO_MORE_PAGES;
+        }
+
+        index = Math.max(index, 0);
+        while (pageIds[index] < target) {
+            index++;
+        }
+        return current = pageIds[index];
+    }
+
+    @Override
+    public float rank() {
+        return CompressedPostingList.dequantizeRank(buffer.get(ranksStart + block * BLOCK_SIZE + index) & 0xFF);
+    }
+
+    @Override
+    public float maxRank() {
+        return maxRank;
+    }
+
+    @Override
+    public float blockMaxRank() {
+        return block < blockCount ? buffer.getFloat(blockTableStart + block * BLOCK_ENTRY_SIZE + 8) : maxRank;
+    }
+
+    private int blockLastId(int block) {
+        return buffer.getInt(blockTableStart + block * BLOCK_ENTRY_SIZE);
+    }
+
+    private int findBlock(int from, int target) {
+        int low = from;
+        int high = blockCount - 1;
+
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (blockLastId(middle) < target) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private boolean loadBlock(int next) {
+        block = next;
+        index = 0;
+
+        if (next >= blockCount) {
+            blockSize = 0;
+            return false;
+        }
+
+        int position = dataStart + buffer.getInt(blockTableStart + next * BLOCK_ENTRY_SIZE + 4);
+        int pageId = next == 0 ? 0 : blockLastId(next - 1);
+        blockSize = Math.min(BLOCK_SIZE, count - next * BLOCK_SIZE);
+
+        for (int i = 0; i < blockSize; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = buffer.get(position++);
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+
+            pageId += delta;
+            pageIds[i] = pageId;
+        }
+        return true;
+    }
+}
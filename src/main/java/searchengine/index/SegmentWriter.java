@@ -0,0 +1,175 @@
+package searchengine.index;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+class SegmentWriter implements Closeable {
+    static final String LEMMAS_FILE = "lemmas.dat";
+    static final String POSTINGS_FILE = "postings.dat";
+    static final String PAGES_FILE = "pages.dat";
+    static final String PAGE_INDEX_FILE = "pages.idx";
+
+    private static final int BLOCK_SIZE = CompressedPostingList.BLOCK_SIZE;
+
+    private final Path directory;
+    private final DataOutputStream postings;
+    private final DataOutputStream pages;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream blockData = new ByteArrayOutputStream();
+    private final List<DictionaryEntry> dictionary = new ArrayList<>();
+    private long postingsPosition;
+    private long pagesPosition;
+    private int[] pageIds = new int[1024];
+    private long[] pageOffsets = new long[1024];
+    private int[] pageLengths = new int[1024];
+    private int pageCount;
+    private long totalLength;
+
+    SegmentWriter(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        this.postings = open(POSTINGS_FILE);
+        this.pages = open(PAGES_FILE);
+    }
+
+    void addPostings(String lemma, int[] ids, float[] ranks, int count) throws IOException {
+        int blockCount = (count + BLOCK_SIZE - 1) / BLOCK_SIZE;
+        int[] blockLastIds = new int[blockCount];
+        int[] blockOffsets = new int[blockCount];
+        float[] blockMaxRanks = new float[blockCount];
+        float maxRank = 0;
+
+        blockData.reset();
+        int previous = 0;
+        for (int block = 0; block < blockCount; block++) {
+            blockOffsets[block] = blockData.size();
+            int end = Math.min(count, (block + 1) * BLOCK_SIZE);
+            int blockMax = 0;
+            for (int i = block * BLOCK_SIZE; i < end; i++) {
+                writeVByte(blockData, ids[i] - previous);
+                previous = ids[i];
+                blockMax = Math.max(blockMax, CompressedPostingList.quantizeRank(ranks[i]));
+            }
+            blockLastIds[block] = previous;
+            blockMaxRanks[block] = CompressedPostingList.dequantizeRank(blockMax);
+            maxRank = Math.max(maxRank, blockMaxRanks[block]);
+        }
+
+        buffer.reset();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(count);
+        out.writeInt(blockCount);
+        out.writeInt(blockData.size());
+        out.writeFloat(maxRank);
+        for (int block = 0; block < blockCount; block++) {
+            out.writeInt(blockLastIds[block]);
+            out.writeInt(blockOffsets[block]);
+            out.writeFloat(blockMaxRanks[block]);
+        }
+        blockData.writeTo(out);
+
+        for (int i = 0; i < count; i++) {
+            out.writeByte(CompressedPostingList.quantizeRank(ranks[i]));
+        }
+        out.flush();
+
+        dictionary.add(new DictionaryEntry(lemma.getBytes(StandardCharsets.UTF_8), postingsPosition));
+        buffer.writeTo(postings);
+        postingsPosition += buffer.size();
+    }
+
+    void addPage(int pageId, String path, String title, String text, int length) throws IOException {
+        if (pageCount > 0 && pageIds[pageCount - 1] >= pageId) {
+            throw new IllegalArgumentException("Pages must be added in ascending id order");
+        }
+        if (pageCount == pageIds.length) {
+            pageIds = Arrays.copyOf(pageIds, pageCount * 2);
+            pageOffsets = Arrays.copyOf(pageOffsets, pageCount * 2);
+            pageLengths = Arrays.copyOf(pageLengths, pageCount * 2);
+        }
+        pageIds[pageCount] = pageId;
+        pageOffsets[pageCount] = pagesPosition;
+        pageLengths[pageCount] = length;
+        pageCount++;
+        totalLength += length;
+
+        buffer.reset();
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(length);
+        writeString(out, path);
+        writeString(out, title);
+        writeString(out, text);
+        out.flush();
+
+        buffer.writeTo(pages);
+        pagesPosition += buffer.size();
+    }
+
+    void finish(String siteUrl, String siteName) throws IOException {
+        close();
+        dictionary.sort((a, b) -> Arrays.compareUnsigned(a.lemma(), b.lemma()));
+
+        try (DataOutputStream out = open(LEMMAS_FILE)) {
+            out.writeInt(Segment.FORMAT_VERSION);
+            out.writeInt(dictionary.size());
+            int offset = 0;
+            for (DictionaryEntry entry : dictionary) {
+                out.writeInt(offset);
+                offset += Segment.DICTIONARY_ENTRY_OVERHEAD + entry.lemma().length;
+            }
+            for (DictionaryEntry entry : dictionary) {
+                out.writeShort(entry.lemma().length);
+                out.write(entry.lemma());
+                out.writeLong(entry.postingsOffset());
+            }
+        }
+
+        try (DataOutputStream out = open(PAGE_INDEX_FILE)) {
+            writeString(out, siteUrl);
+            writeString(out, siteName);
+            out.writeInt(pageCount);
+            out.writeLong(totalLength);
+            for (int i = 0; i < pageCount; i++) {
+                out.writeInt(pageIds[i]);
+                out.writeLong(pageOffsets[i]);
+                out.writeInt(pageLengths[i]);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            postings.close();
+        } finally {
+            pages.close();
+        }
+    }
+
+    private DataOutputStream open(String fileName) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(directory.resolve(fileName)), 1 << 16));
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeVByte(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private record DictionaryEntry(byte[] lemma, long postingsOffset) {
+    }
+}
@@ -0,0 +1,111 @@
+package searchengine.index;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.*;
+
+@Component
+public class SiteFanOut {
+    private final SearchBackend searchBackend;
+    private final QueryResultCache queryResultCache;
+    private final LemmaStatistics lemmaStatistics;
+    private final ExecutorService executor;
+    private final long siteTimeoutMillis;
+
+    public SiteFanOut(SearchBackend searchBackend,
+                      QueryResultCache queryResultCache,
+                      LemmaStatistics lemmaStatistics,
+                      @Value("${search.fan-out-threads:4}") int threads,
+                      @Value("${search.site-timeout-millis:2000}") long siteTimeoutMillis) {
+        this.searchBackend = searchBackend;
+        this.queryResultCache = queryResultCache;
+        this.lemmaStatistics = lemmaStatistics;
+        this.siteTimeoutMillis = siteTimeoutMillis;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 16), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public RankedPages rank(List<String> lemmas, int offset, int limit) {
+        int window = offset + limit;
+        List<Future<RankedPages>> futures = new ArrayList<>();
+        boolean partial = false;
+
+        for (String siteUrl : lemmaStatistics.getSiteUrls()) {
+            try {
+                futures.add(executor.submit(() -> queryResultCache.get(lemmas, siteUrl, 0, window,
+                        () -> searchBackend.rank(lemmas, siteUrl, 0, window))));
+            } catch (RejectedExecutionException e) {
+                partial = true;
+            }
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(siteTimeoutMillis);
+        List<RankedPages> results = new ArrayList<>();
+
+        for (Future<RankedPages> future : futures) {
+            try {
+                results.add(future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                partial = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                futures.forEach(f -> f.cancel(true));
+                partial = true;
+                break;
+            } catch (ExecutionException e) {
+                partial = true;
+            }
+        }
+
+        return merge(results, offset, window, partial);
+    }
+
+    private RankedPages merge(List<RankedPages> results, int offset, int window, boolean partial) {
+        int total = 0;
+        double maxScore = 0;
+        int[] positions = new int[results.size()];
+        PriorityQueue<Integer> heads = new PriorityQueue<>((a, b) -> {
+            RankedPages left = results.get(a);
+            RankedPages right = results.get(b);
+            int comparison = Double.compare(right.getScores()[positions[b]], left.getScores()[positions[a]]);
+            return comparison != 0
+                    ? comparison
+                    : Integer.compare(left.getPageIds()[positions[a]], right.getPageIds()[positions[b]]);
+        });
+
+        for (int i = 0; i < results.size(); i++) {
+            RankedPages result = results.get(i);
+            total += result.getTotal();
+            maxScore = Math.max(maxScore, result.getMaxScore());
+            if (result.size() > 0) heads.add(i);
+        }
+
+        int taken = Math.min(window, results.stream().mapToInt(RankedPages::size).sum());
+        int size = Math.max(0, taken - offset);
+        int[] pageIds = new int[size];
+        double[] scores = new double[size];
+
+        for (int rank = 0; rank < taken; rank++) {
+            int site = heads.poll();
+            RankedPages result = results.get(site);
+            if (rank >= offset) {
+                pageIds[rank - offset] = result.getPageIds()[positions[site]];
+                scores[rank - offset] = result.getScores()[positions[site]];
+            }
+            if (++positions[site] < result.size()) heads.add(site);
+        }
+
+        return new RankedPages(total, maxScore, pageIds, scores, partial);
+    }
+}
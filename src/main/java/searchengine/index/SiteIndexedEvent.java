@@ -0,0 +1,10 @@
+package searchengine.index;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class SiteIndexedEvent {
+    private final int siteId;
+}
@@ -0,0 +1,11 @@
+package searchengine.index;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public class SiteRemovedEvent {
+    private final int siteId;
+    private final String siteUrl;
+}
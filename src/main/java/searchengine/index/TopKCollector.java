@@ -0,0 +1,106 @@
+package searchengine.index;
+
+class TopKCollector {
+    private final int capacity;
+    private final int[] pageIds;
+    private final double[] scores;
+    private int size;
+    private int total;
+    private double maxScore;
+
+    TopKCollector(int capacity) {
+        this.capacity = capacity;
+        this.pageIds = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    void offer(int pageId, double score) {
+        total++;
+        maxScore = Math.max(maxScore, score);
+
+        if (capacity == 0) return;
+
+        if (size < capacity) {
+            pageIds[size] = pageId;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (isBetter(pageId, score, 0)) {
+            pageIds[0] = pageId;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    void countMatch() {
+        total++;
+    }
+
+    double threshold() {
+        if (capacity == 0) return Double.POSITIVE_INFINITY;
+        return size < capacity ? Double.NEGATIVE_INFINITY : scores[0];
+    }
+
+    int total() {
+        return total;
+    }
+
+    RankedPages toRankedPages(int offset) {
+        int count = size;
+        int[] sortedIds = new int[count];
+        double[] sortedScores = new double[count];
+
+        for (int i = count - 1; i >= 0; i--) {
+            sortedIds[i] = pageIds[0];
+            sortedScores[i] = scores[0];
+            size--;
+            pageIds[0] = pageIds[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+
+        int from = Math.min(offset, count);
+        int[] windowIds = new int[count - from];
+        double[] windowScores = new double[count - from];
+        System.arraycopy(sortedIds, from, windowIds, 0, windowIds.length);
+        System.arraycopy(sortedScores, from, windowScores, 0, windowScores.length);
+
+        return new RankedPages(total, maxScore, windowIds, windowScores);
+    }
+
+    private boolean isBetter(int pageId, double score, int index) {
+        return score > scores[index] || (score == scores[index] && pageId < pageIds[index]);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!isBetter(pageIds[parent], scores[parent], index)) break;
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int worst = index;
+            int left = index * 2 + 1;
+            int right = left + 1;
+
+            if (left < size && isBetter(pageIds[worst], scores[worst], left)) worst = left;
+            if (right < size && isBetter(pageIds[worst], scores[worst], right)) worst = right;
+            if (worst == index) return;
+
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int pageId = pageIds[a];
+        double score = scores[a];
+        pageIds[a] = pageIds[b];
+        scores[a] = scores[b];
+        pageIds[b] = pageId;
+        scores[b] = score;
+    }
+}
@@ -4,11 +4,15 @@ import lombok.Getter;
 import lombok.Setter;
 
 import javax.persistence.*;
+import java.time.LocalDateTime;
 
 @Getter
 @Setter
 @Entity
-@Table(name = "page", indexes = @Index(name = "idx_path", columnList = "path"))
+@Table(name = "page", indexes = {
+        @Index(name = "idx_path", columnList = "path"),
+        @Index(name = "idx_site_path_key", columnList = "site_id, path_key")
+})
 public class Page {
 
     @Id
@@ -22,9 +26,32 @@ public class Page {
     @Column(nullable = false)
     private String path;
 
+    @Column(name = "path_key")
+    private String pathKey;
+
     @Column(nullable = false)
     private int code;
 
     @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
     private String content;
+
+    @Column(columnDefinition = "TEXT")
+    private String title;
+
+    @Column(columnDefinition = "MEDIUMTEXT")
+    private String text;
+
+    @Column(nullable = false)
+    private int length;
+
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    private String etag;
+
+    @Column(name = "last_modified")
+    private String lastModified;
+
+    @Column(name = "crawled_at")
+    private LocalDateTime crawledAt;
 }
@@ -1,25 +1,31 @@
 package searchengine.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import searchengine.model.Lemma;
-import searchengine.model.Site;
 
-import java.util.Optional;
+import java.util.Collection;
 
 @Repository
-public interface LemmaRepository extends JpaRepository<Lemma, Integer> {
-    Optional<Lemma> findByLemmaAndSite(String lemmaText, Site site);
-    void deleteBySite(Site site);
+public interface LemmaRepository extends JpaRepository<Lemma, Integer>, LemmaRepositoryCustom {
+    @Modifying
+    @Query("""
+        DELETE FROM Lemma l
+        WHERE l.site.id = :siteId
+    """)
+    void deleteBySiteId(@Param("siteId") int siteId);
+
     long count();
     int countBySiteId(int siteId);
 
+    @Modifying
     @Query("""
-        SELECT SUM(l.frequency)
-        FROM Lemma l
-        WHERE l.lemma = :lemma
+        DELETE FROM Lemma l
+        WHERE l.id IN :ids
+          AND l.frequency <= 0
     """)
-    Long findTotalFrequencyByLemma(@Param("lemma") String lemma);
+    void deleteUnusedByIdIn(@Param("ids") Collection<Integer> ids);
 }
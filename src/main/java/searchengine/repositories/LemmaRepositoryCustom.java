@@ -0,0 +1,8 @@
+package searchengine.repositories;
+
+import java.util.Map;
+import java.util.SortedMap;
+
+public interface LemmaRepositoryCustom {
+    Map<String, Integer> upsertLemmas(int siteId, SortedMap<String, Integer> frequencyDeltas);
+}
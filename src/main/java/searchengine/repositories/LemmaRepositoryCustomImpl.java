@@ -0,0 +1,59 @@
+package searchengine.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.util.*;
+
+@RequiredArgsConstructor
+public class LemmaRepositoryCustomImpl implements LemmaRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies frequency deltas in one pass over the lemmas in sorted order, so concurrent
+     * transactions always lock lemma rows in the same order. Returns ids of all given lemmas
+     * that still exist.
+     */
+    @Override
+    public Map<String, Integer> upsertLemmas(int siteId, SortedMap<String, Integer> frequencyDeltas) {
+        Map<String, Integer> lemmaIds = new HashMap<>();
+        List<Map.Entry<String, Integer>> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (Map.Entry<String, Integer> delta : frequencyDeltas.entrySet()) {
+            batch.add(delta);
+            if (batch.size() == BATCH_SIZE) {
+                upsertBatch(siteId, batch, lemmaIds);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            upsertBatch(siteId, batch, lemmaIds);
+        }
+        return lemmaIds;
+    }
+
+    private void upsertBatch(int siteId, List<Map.Entry<String, Integer>> batch, Map<String, Integer> lemmaIds) {
+        Object[] insertArgs = new Object[batch.size() * 3];
+        Object[] selectArgs = new Object[batch.size() + 1];
+        selectArgs[0] = siteId;
+
+        for (int i = 0; i < batch.size(); i++) {
+            insertArgs[i * 3] = siteId;
+            insertArgs[i * 3 + 1] = batch.get(i).getKey();
+            insertArgs[i * 3 + 2] = batch.get(i).getValue();
+            selectArgs[i + 1] = batch.get(i).getKey();
+        }
+
+        jdbcTemplate.update("INSERT INTO lemma (site_id, lemma, frequency) VALUES "
+                + String.join(", ", Collections.nCopies(batch.size(), "(?, ?, ?)"))
+                + " ON DUPLICATE KEY UPDATE frequency = frequency + VALUES(frequency)", insertArgs);
+
+        jdbcTemplate.query("SELECT id, lemma FROM lemma WHERE site_id = ? AND lemma IN ("
+                        + String.join(", ", Collections.nCopies(batch.size(), "?")) + ")",
+                (RowCallbackHandler) rs -> lemmaIds.put(rs.getString("lemma"), rs.getInt("id")),
+                selectArgs);
+    }
+}
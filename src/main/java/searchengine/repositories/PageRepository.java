@@ -1,17 +1,66 @@
 package searchengine.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import searchengine.dto.indexing.PageValidators;
+import searchengine.dto.indexing.StalePage;
+import searchengine.dto.search.PageSummary;
 import searchengine.model.Page;
 import searchengine.model.Site;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PageRepository extends JpaRepository<Page, Integer> {
-    void deleteBySite(Site site);
-    Optional<Page> findByPathAndSite(String path, Site site);
+    @Modifying
+    @Query("""
+        DELETE FROM Page p
+        WHERE p.site.id = :siteId
+    """)
+    void deleteBySiteId(@Param("siteId") int siteId);
+
+    Optional<Page> findByPathKeyAndSite(String pathKey, Site site);
+    Optional<Page> findFirstByPathAndSiteAndPathKeyIsNull(String path, Site site);
     long count();
     int countBySiteId(int siteId);
-    Long countBySiteUrl(String url);
+
+    @Query("""
+        SELECT p.id AS id, p.path AS path, p.title AS title, p.text AS text,
+               s.url AS siteUrl, s.name AS siteName
+        FROM Page p
+        JOIN p.site s
+        WHERE p.id IN :ids
+    """)
+    List<PageSummary> findSummariesByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("""
+        SELECT p.pathKey AS pathKey, p.etag AS etag, p.lastModified AS lastModified
+        FROM Page p
+        WHERE p.site.id = :siteId
+          AND p.code < 400
+          AND p.pathKey IS NOT NULL
+    """)
+    List<PageValidators> findValidatorsBySiteId(@Param("siteId") int siteId);
+
+    @Query("""
+        SELECT p.content
+        FROM Page p
+        WHERE p.site.id = :siteId
+          AND p.pathKey = :pathKey
+    """)
+    Optional<String> findContentBySiteIdAndPathKey(@Param("siteId") int siteId, @Param("pathKey") String pathKey);
+
+    @Query("""
+        SELECT p.id AS id, p.pathKey AS pathKey
+        FROM Page p
+        WHERE p.site.id = :siteId
+          AND (p.crawledAt IS NULL OR p.crawledAt < :before)
+    """)
+    List<StalePage> findNotCrawledSince(@Param("siteId") int siteId, @Param("before") LocalDateTime before);
 }
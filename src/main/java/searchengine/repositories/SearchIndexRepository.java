@@ -1,34 +1,144 @@
 package searchengine.repositories;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import searchengine.model.Page;
+import searchengine.dto.indexing.IndexedLemma;
+import searchengine.dto.search.MatchStatistics;
+import searchengine.dto.search.PageRelevance;
 import searchengine.model.SearchIndex;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface SearchIndexRepository extends JpaRepository<SearchIndex, Integer> {
-    void deleteByPage(Page oldPage);
+public interface SearchIndexRepository extends JpaRepository<SearchIndex, Integer>, SearchIndexRepositoryCustom {
+    @Modifying
+    @Query("""
+        DELETE FROM SearchIndex si
+        WHERE si.page.id = :pageId
+    """)
+    void deleteByPageId(@Param("pageId") int pageId);
 
+    @Modifying
     @Query("""
-        SELECT si.page.id
-        FROM SearchIndex si
-        WHERE si.lemma.lemma = :lemma
+        DELETE FROM SearchIndex si
+        WHERE si.page.id IN (SELECT p.id FROM Page p WHERE p.site.id = :siteId)
     """)
-    List<Integer> findPageIdByLemma(@Param("lemma") String lemma);
+    void deleteBySiteId(@Param("siteId") int siteId);
 
+    @Modifying
+    @Query("""
+        DELETE FROM SearchIndex si
+        WHERE si.page.id = :pageId
+          AND si.lemma.id IN :lemmaIds
+    """)
+    void deleteByPageIdAndLemmaIdIn(@Param("pageId") int pageId, @Param("lemmaIds") Collection<Integer> lemmaIds);
 
     @Query("""
-        SELECT si.rank
+        SELECT l.id AS lemmaId, l.lemma AS lemma, si.rank AS rank
         FROM SearchIndex si
+        JOIN si.lemma l
         WHERE si.page.id = :pageId
-          AND si.lemma.lemma = :lemma
     """)
-    Float findRankByPageIdAndLemma(
-            @Param("pageId") int pageId,
-            @Param("lemma") String lemma
+    List<IndexedLemma> findIndexedLemmasByPageId(@Param("pageId") int pageId);
+
+    @Query(value = """
+        SELECT si.page_id AS pageId, SUM(si.rank_value) AS relevance
+        FROM search_index si
+        JOIN lemma l ON l.id = si.lemma_id
+        JOIN site s ON s.id = l.site_id
+        WHERE l.lemma IN (:lemmas)
+          AND (:siteUrl IS NULL OR s.url = :siteUrl)
+        GROUP BY si.page_id
+        HAVING COUNT(DISTINCT si.lemma_id) = :lemmaCount
+        ORDER BY relevance DESC, si.page_id
+        LIMIT :limit OFFSET :offset
+    """, nativeQuery = true)
+    List<PageRelevance> findRelevanceByLemmas(
+            @Param("lemmas") Collection<String> lemmas,
+            @Param("lemmaCount") int lemmaCount,
+            @Param("siteUrl") String siteUrl,
+            @Param("offset") int offset,
+            @Param("limit") int limit
+    );
+
+    @Query(value = """
+        SELECT COUNT(*) AS total, MAX(r.relevance) AS maxRelevance
+        FROM (
+            SELECT SUM(si.rank_value) AS relevance
+            FROM search_index si
+            JOIN lemma l ON l.id = si.lemma_id
+            JOIN site s ON s.id = l.site_id
+            WHERE l.lemma IN (:lemmas)
+              AND (:siteUrl IS NULL OR s.url = :siteUrl)
+            GROUP BY si.page_id
+            HAVING COUNT(DISTINCT si.lemma_id) = :lemmaCount
+        ) r
+    """, nativeQuery = true)
+    MatchStatistics findMatchStatisticsByLemmas(
+            @Param("lemmas") Collection<String> lemmas,
+            @Param("lemmaCount") int lemmaCount,
+            @Param("siteUrl") String siteUrl
+    );
+
+    @Query(value = """
+        SELECT si.page_id AS pageId,
+               SUM(LN(1 + (:pageCount - ELT(FIELD(l.lemma, :lemmas), :frequencies) + 0.5)
+                          / (ELT(FIELD(l.lemma, :lemmas), :frequencies) + 0.5))
+                   * si.rank_value * (:k1 + 1)
+                   / (si.rank_value + :k1 * (1 - :b + :b * p.length / :avgLength))) AS relevance
+        FROM search_index si
+        JOIN lemma l ON l.id = si.lemma_id
+        JOIN site s ON s.id = l.site_id
+        JOIN page p ON p.id = si.page_id
+        WHERE l.lemma IN (:lemmas)
+          AND (:siteUrl IS NULL OR s.url = :siteUrl)
+        GROUP BY si.page_id
+        HAVING COUNT(DISTINCT si.lemma_id) = :lemmaCount
+        ORDER BY relevance DESC, si.page_id
+        LIMIT :limit OFFSET :offset
+    """, nativeQuery = true)
+    List<PageRelevance> findBm25RelevanceByLemmas(
+            @Param("lemmas") Collection<String> lemmas,
+            @Param("lemmaCount") int lemmaCount,
+            @Param("siteUrl") String siteUrl,
+            @Param("frequencies") Collection<Long> frequencies,
+            @Param("pageCount") long pageCount,
+            @Param("avgLength") double avgLength,
+            @Param("k1") double k1,
+            @Param("b") double b,
+            @Param("offset") int offset,
+            @Param("limit") int limit
+    );
+
+    @Query(value = """
+        SELECT COUNT(*) AS total, MAX(r.relevance) AS maxRelevance
+        FROM (
+            SELECT SUM(LN(1 + (:pageCount - ELT(FIELD(l.lemma, :lemmas), :frequencies) + 0.5)
+                              / (ELT(FIELD(l.lemma, :lemmas), :frequencies) + 0.5))
+                       * si.rank_value * (:k1 + 1)
+                       / (si.rank_value + :k1 * (1 - :b + :b * p.length / :avgLength))) AS relevance
+            FROM search_index si
+            JOIN lemma l ON l.id = si.lemma_id
+            JOIN site s ON s.id = l.site_id
+            JOIN page p ON p.id = si.page_id
+            WHERE l.lemma IN (:lemmas)
+              AND (:siteUrl IS NULL OR s.url = :siteUrl)
+            GROUP BY si.page_id
+            HAVING COUNT(DISTINCT si.lemma_id) = :lemmaCount
+        ) r
+    """, nativeQuery = true)
+    MatchStatistics findBm25MatchStatisticsByLemmas(
+            @Param("lemmas") Collection<String> lemmas,
+            @Param("lemmaCount") int lemmaCount,
+            @Param("siteUrl") String siteUrl,
+            @Param("frequencies") Collection<Long> frequencies,
+            @Param("pageCount") long pageCount,
+            @Param("avgLength") double avgLength,
+            @Param("k1") double k1,
+            @Param("b") double b
     );
 }
@@ -0,0 +1,8 @@
+package searchengine.repositories;
+
+import java.util.Map;
+
+public interface SearchIndexRepositoryCustom {
+    void insertAll(int pageId, Map<Integer, Float> ranksByLemmaId);
+    void updateRanks(int pageId, Map<Integer, Float> ranksByLemmaId);
+}
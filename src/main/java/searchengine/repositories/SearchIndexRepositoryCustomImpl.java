@@ -0,0 +1,70 @@
+package searchengine.repositories;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class SearchIndexRepositoryCustomImpl implements SearchIndexRepositoryCustom {
+    private static final int BATCH_SIZE = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(int pageId, Map<Integer, Float> ranksByLemmaId) {
+        Object[] args = new Object[Math.min(ranksByLemmaId.size(), BATCH_SIZE) * 3];
+        int rows = 0;
+
+        for (Map.Entry<Integer, Float> entry : ranksByLemmaId.entrySet()) {
+            args[rows * 3] = pageId;
+            args[rows * 3 + 1] = entry.getKey();
+            args[rows * 3 + 2] = entry.getValue();
+            rows++;
+
+            if (rows == BATCH_SIZE) {
+                insertBatch(args, rows);
+                rows = 0;
+            }
+        }
+        if (rows > 0) {
+            insertBatch(args, rows);
+        }
+    }
+
+    @Override
+    public void updateRanks(int pageId, Map<Integer, Float> ranksByLemmaId) {
+        List<Map.Entry<Integer, Float>> entries = new ArrayList<>(ranksByLemmaId.entrySet());
+        for (int from = 0; from < entries.size(); from += BATCH_SIZE) {
+            updateBatch(pageId, entries.subList(from, Math.min(from + BATCH_SIZE, entries.size())));
+        }
+    }
+
+    private void insertBatch(Object[] args, int rows) {
+        Object[] batchArgs = (rows * 3 == args.length) ? args : Arrays.copyOf(args, rows * 3);
+        jdbcTemplate.update("INSERT INTO search_index (page_id, lemma_id, rank_value) VALUES "
+                + String.join(", ", Collections.nCopies(rows, "(?, ?, ?)")), batchArgs);
+    }
+
+    private void updateBatch(int pageId, List<Map.Entry<Integer, Float>> entries) {
+        Object[] args = new Object[entries.size() * 3 + 1];
+        int i = 0;
+        for (Map.Entry<Integer, Float> entry : entries) {
+            args[i++] = entry.getKey();
+            args[i++] = entry.getValue();
+        }
+        args[i++] = pageId;
+        for (Map.Entry<Integer, Float> entry : entries) {
+            args[i++] = entry.getKey();
+        }
+
+        jdbcTemplate.update("UPDATE search_index SET rank_value = CASE lemma_id "
+                + String.join(" ", Collections.nCopies(entries.size(), "WHEN ? THEN ?"))
+                + " END WHERE page_id = ? AND lemma_id IN ("
+                + String.join(", ", Collections.nCopies(entries.size(), "?")) + ")", args);
+    }
+}
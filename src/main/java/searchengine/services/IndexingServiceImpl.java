@@ -1,25 +1,36 @@
 package searchengine.services;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
 import searchengine.config.IndexingConfig;
 import searchengine.config.SiteConfig;
+import searchengine.dto.indexing.PageValidators;
+import searchengine.dto.indexing.StalePage;
+import searchengine.index.QueryResultCache;
+import searchengine.index.SiteIndexedEvent;
+import searchengine.index.SiteRemovedEvent;
 import searchengine.model.Site;
 import searchengine.model.Status;
 import searchengine.repositories.LemmaRepository;
 import searchengine.repositories.PageRepository;
 import searchengine.repositories.SearchIndexRepository;
 import searchengine.repositories.SiteRepository;
+import searchengine.services.tools.CrawlScheduler;
+import searchengine.services.tools.FrontierLog;
+import searchengine.services.tools.IndexingQueue;
 import searchengine.services.tools.SiteCrawler;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ForkJoinPool;
-import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
@@ -28,10 +39,14 @@ public class IndexingServiceImpl implements IndexingService {
     private final PageRepository pageRepository;
     private final SearchIndexRepository searchIndexRepository;
     private final LemmaRepository lemmaRepository;
+    private final PageIndexingService pageIndexingService;
     private final IndexingConfig indexingConfig;
     private final TransactionTemplate transactionTemplate;
-    private final Map<Integer, ForkJoinPool> runningPools = new ConcurrentHashMap<>();
-    private final PageIndexingService pageIndexingService;
+    private final Map<Integer, SiteCrawler> runningCrawls = new ConcurrentHashMap<>();
+    private final IndexingQueue indexingQueue;
+    private final ApplicationEventPublisher eventPublisher;
+    private final QueryResultCache queryResultCache;
+    private final CrawlScheduler crawlScheduler;
 
     @Override
     public boolean startIndexing() {
@@ -39,55 +54,71 @@ public class IndexingServiceImpl implements IndexingService {
             return false;
         }
 
-        SiteCrawler.reset();
+        queryResultCache.invalidateAll();
+        crawlScheduler.resetHosts();
+        removeUnconfiguredSites();
 
         for (SiteConfig siteConfig : indexingConfig.getSites()) {
             Site site = transactionTemplate.execute(status -> {
-                siteRepository.findByUrl(siteConfig.getUrl())
-                        .ifPresent(oldSite -> {
-                            searchIndexRepository.deleteAll();
-                            lemmaRepository.deleteAll();
-                            pageRepository.deleteBySite(oldSite);
-                            siteRepository.delete(oldSite);
-                        });
-
-                Site newSite = new Site();
-                newSite.setStatus(Status.INDEXING);
-                newSite.setStatusTime(LocalDateTime.now());
-                newSite.setUrl(siteConfig.getUrl());
-                newSite.setName(siteConfig.getName());
-                return siteRepository.save(newSite);
+                Site crawledSite = siteRepository.findByUrl(siteConfig.getUrl()).orElseGet(Site::new);
+                crawledSite.setStatus(Status.INDEXING);
+                crawledSite.setStatusTime(LocalDateTime.now());
+                crawledSite.setLastError(null);
+                crawledSite.setUrl(siteConfig.getUrl());
+                crawledSite.setName(siteConfig.getName());
+                return siteRepository.save(crawledSite);
             });
 
-            ForkJoinPool forkJoinPool = new ForkJoinPool();
-            SiteCrawler siteCrawler = new SiteCrawler(site, site.getUrl(), indexingConfig,
-                    siteRepository, pageRepository, null, transactionTemplate, pageIndexingService);
+            Map<String, PageValidators> knownPages = new HashMap<>();
+            pageRepository.findValidatorsBySiteId(site.getId())
+                    .forEach(validators -> knownPages.put(validators.getPathKey(), validators));
 
-            runningPools.put(site.getId(), forkJoinPool);
+            FrontierLog.Snapshot unfinished = crawlScheduler.findUnfinishedCrawl(site.getId()).orElse(null);
+            LocalDateTime crawlStart = (unfinished != null)
+                    ? unfinished.crawlStart()
+                    : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+            SiteCrawler siteCrawler = crawlScheduler.crawl(site, knownPages, crawlStart, unfinished);
+            runningCrawls.put(site.getId(), siteCrawler);
 
             CompletableFuture.runAsync(() -> {
                 try {
-                    forkJoinPool.execute(siteCrawler);
-                    forkJoinPool.awaitQuiescence(Long.MAX_VALUE, TimeUnit.DAYS);
+                    siteCrawler.getCompletion().join();
+                    indexingQueue.awaitSite(site.getId());
+                    if (siteCrawler.isStopped()) return;
+
+                    if (!siteCrawler.isRootFetched()) {
+                        updateSite(site.getId(), s -> {
+                            s.setStatus(Status.FAILED);
+                            s.setLastError("Главная страница сайта недоступна");
+                            s.setStatusTime(LocalDateTime.now());
+                        });
+                        siteCrawler.discardFrontier();
+                        return;
+                    }
+
+                    removeStalePages(site.getId(), crawlStart, siteCrawler);
 
                     updateSite(site.getId(), s -> {
-                        if (s.getStatus() == Status.INDEXING) {
+                        if (s.getStatus() == Status.INDEXING && !siteCrawler.isStopped()) {
                             s.setStatus(Status.INDEXED);
                             if (s.getLastError() == null) {
                                 s.setLastError("Проиндексирован без ошибок");
                             }
                             s.setStatusTime(LocalDateTime.now());
+                            eventPublisher.publishEvent(new SiteIndexedEvent(s.getId()));
                         }
                     });
+                    siteCrawler.discardFrontier();
                 } catch (Exception e) {
+                    if (siteCrawler.isStopped()) return;
                     updateSite(site.getId(), s -> {
                         s.setStatus(Status.FAILED);
                         s.setLastError("Ошибка индексации: " + e.getMessage());
                         s.setStatusTime(LocalDateTime.now());
                     });
                 } finally {
-                    forkJoinPool.shutdown();
-                    runningPools.remove(site.getId());
+                    runningCrawls.remove(site.getId(), siteCrawler);
                 }
             });
         }
@@ -100,9 +131,8 @@ public class IndexingServiceImpl implements IndexingService {
             return false;
         }
 
-        SiteCrawler.stop();
-
-        runningPools.values().forEach(ForkJoinPool::shutdownNow);
+        runningCrawls.values().forEach(SiteCrawler::stop);
+        indexingQueue.discard();
 
         transactionTemplate.execute(status -> {
             siteRepository.findAll().forEach(site -> {
@@ -116,12 +146,40 @@ public class IndexingServiceImpl implements IndexingService {
             return null;
         });
 
-        runningPools.clear();
+        runningCrawls.clear();
+        queryResultCache.invalidateAll();
         return true;
     }
 
     public boolean isIndexingInProgress() {
-        return runningPools.values().stream().anyMatch(pool -> !pool.isTerminated());
+        return !runningCrawls.isEmpty();
+    }
+
+    private void removeUnconfiguredSites() {
+        Set<String> configuredUrls = indexingConfig.getSites().stream()
+                .map(SiteConfig::getUrl)
+                .collect(Collectors.toSet());
+
+        for (Site site : siteRepository.findAll()) {
+            if (configuredUrls.contains(site.getUrl())) continue;
+
+            transactionTemplate.executeWithoutResult(status -> {
+                searchIndexRepository.deleteBySiteId(site.getId());
+                lemmaRepository.deleteBySiteId(site.getId());
+                pageRepository.deleteBySiteId(site.getId());
+                siteRepository.delete(site);
+                crawlScheduler.discardFrontier(site.getId());
+                eventPublisher.publishEvent(new SiteRemovedEvent(site.getId(), site.getUrl()));
+            });
+        }
+    }
+
+    private void removeStalePages(int siteId, LocalDateTime crawlStart, SiteCrawler siteCrawler) {
+        for (StalePage page : pageRepository.findNotCrawledSince(siteId, crawlStart)) {
+            if (siteCrawler.isStopped()) return;
+            if (siteCrawler.getFailedPathKeys().contains(page.getPathKey())) continue;
+            pageIndexingService.removePage(page.getId());
+        }
     }
 
     private void updateSite(Integer siteId, Consumer<Site> updater) {
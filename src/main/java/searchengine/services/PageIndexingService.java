@@ -1,5 +1,12 @@
 package searchengine.services;
 
+import searchengine.services.tools.FetchedPage;
+
+import java.util.List;
+
 public interface PageIndexingService {
     boolean indexPage(String url);
+    boolean indexPage(FetchedPage fetchedPage);
+    List<Boolean> indexPages(List<FetchedPage> fetchedPages);
+    void removePage(int pageId);
 }
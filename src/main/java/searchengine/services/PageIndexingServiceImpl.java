@@ -1,23 +1,32 @@
 package searchengine.services;
 
 import lombok.RequiredArgsConstructor;
-import org.jsoup.Connection;
 import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import searchengine.config.IndexingConfig;
+import searchengine.dto.indexing.IndexedLemma;
+import searchengine.index.PageIndexedEvent;
+import searchengine.index.PageRemovedEvent;
 import searchengine.model.*;
 import searchengine.repositories.LemmaRepository;
 import searchengine.repositories.PageRepository;
 import searchengine.repositories.SearchIndexRepository;
 import searchengine.repositories.SiteRepository;
+import searchengine.services.tools.FetchedPage;
+import searchengine.services.tools.Fetcher;
 import searchengine.services.tools.LemmaFinder;
+import searchengine.services.tools.UrlNormalizer;
 
-import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
-import java.util.Map;
+import java.util.*;
+import java.util.concurrent.CompletionException;
 
 @RequiredArgsConstructor
 @Service
@@ -26,7 +35,9 @@ public class PageIndexingServiceImpl implements PageIndexingService {
     private final SearchIndexRepository searchIndexRepository;
     private final PageRepository pageRepository;
     private final SiteRepository siteRepository;
-    private final IndexingConfig indexingConfig;
+    private final Fetcher fetcher;
+    private final LemmaFinder lemmaFinder;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional
     @Override
@@ -38,76 +49,206 @@ public class PageIndexingServiceImpl implements PageIndexingService {
         }
 
         try {
-            LemmaFinder lemmaFinder = LemmaFinder.getInstance();
+            return indexPage(fetcher.fetch(url, null).join());
+        } catch (CompletionException e) {
+            return false;
+        }
+    }
 
-            Connection.Response response = Jsoup.connect(url)
-                    .userAgent(indexingConfig.getUserAgent())
-                    .referrer(indexingConfig.getReferrer())
-                    .timeout(10000)
-                    .ignoreHttpErrors(true)
-                    .execute();
+    @Transactional
+    @Override
+    public boolean indexPage(FetchedPage fetchedPage) {
+        return indexPages(List.of(fetchedPage)).get(0);
+    }
 
-            String html = response.body();
-            String text = lemmaFinder.clearHtml(html);
+    /**
+     * Indexes the pages in one transaction. Lemma frequency changes of all pages are merged
+     * per site and written with one sorted upsert, so batches lock lemma rows in the same order.
+     */
+    @Transactional
+    @Override
+    public List<Boolean> indexPages(List<FetchedPage> fetchedPages) {
+        List<Boolean> results = new ArrayList<>(fetchedPages.size());
+        List<PageUpdate> updates = new ArrayList<>();
+        Map<Integer, SortedMap<String, Integer>> frequencyDeltas = new TreeMap<>();
 
-            var site = siteRepository.findByUrl(rootUrl).orElseThrow();
+        for (FetchedPage fetchedPage : fetchedPages) {
+            results.add(preparePage(fetchedPage, updates, frequencyDeltas));
+        }
 
-            String path = url.replace(rootUrl, "/");
+        Map<Integer, Map<String, Integer>> lemmaIds = new HashMap<>();
+        frequencyDeltas.forEach((siteId, deltas) -> lemmaIds.put(siteId, lemmaRepository.upsertLemmas(siteId, deltas)));
 
-            pageRepository.findByPathAndSite(path, site).ifPresent(oldPage -> {
-                searchIndexRepository.deleteByPage(oldPage);
-                lemmaRepository.deleteBySite(site);
-                pageRepository.delete(oldPage);
-            });
+        for (PageUpdate update : updates) {
+            applyLemmaChanges(update, lemmaIds.getOrDefault(update.site().getId(), Map.of()));
+        }
+        return results;
+    }
 
-            Page page = new Page();
-            page.setSite(site);
-            page.setPath(path);
-            page.setCode(response.statusCode());
+    private boolean preparePage(FetchedPage fetchedPage, List<PageUpdate> updates,
+                                Map<Integer, SortedMap<String, Integer>> frequencyDeltas) {
+        String url = fetchedPage.getUrl();
+        String rootUrl = getRootUrl(url);
 
-            site.setStatusTime(LocalDateTime.now());
+        Site site = siteRepository.findByUrl(rootUrl).orElse(null);
+        if (site == null) {
+            return false;
+        }
 
-            if (response.statusCode() < 400) {
-                page.setContent(html);
-            } else {
-                page.setContent("");
-            }
+        String path = getPath(url);
+        String pathKey = UrlNormalizer.pathKey(url);
+        if (pathKey == null) {
+            throw new IllegalArgumentException("Incorrect URL: " + url);
+        }
+        Page oldPage = pageRepository.findByPathKeyAndSite(pathKey, site)
+                .or(() -> pageRepository.findFirstByPathAndSiteAndPathKeyIsNull(path, site))
+                .orElse(null);
+        if (oldPage != null) {
+            oldPage.setPathKey(pathKey);
+        }
 
-            siteRepository.save(site);
-            pageRepository.save(page);
+        if (fetchedPage.isNotModified()) {
+            if (oldPage == null) return false;
+            markCrawled(oldPage, fetchedPage);
+            return true;
+        }
 
-            Map<String, Integer> lemmas = lemmaFinder.collectLemmas(text);
+        String html = fetchedPage.getHtml();
+        String contentHash = hash(html);
 
-            for (Map.Entry<String, Integer> entry : lemmas.entrySet()) {
-                String lemmaText = entry.getKey();
-                int count = entry.getValue();
+        if (oldPage != null && oldPage.getCode() == fetchedPage.getStatusCode()
+                && contentHash.equals(oldPage.getContentHash())) {
+            markCrawled(oldPage, fetchedPage);
+            return true;
+        }
 
-                Lemma lemma = lemmaRepository.findByLemmaAndSite(lemmaText, site)
-                        .orElseGet(() -> {
-                            Lemma l = new Lemma();
-                            l.setSite(site);
-                            l.setLemma(lemmaText);
-                            l.setFrequency(0);
-                            return l;
-                        });
+        Document document = (fetchedPage.getDocument() != null)
+                ? fetchedPage.getDocument()
+                : Jsoup.parse(html);
 
-                lemma.setFrequency(lemma.getFrequency() + 1);
-                lemmaRepository.save(lemma);
+        int previousLength = (oldPage != null) ? oldPage.getLength() : 0;
+        Page page = (oldPage != null) ? oldPage : new Page();
+        page.setSite(site);
+        page.setPath(path);
+        page.setPathKey(pathKey);
+        page.setCode(fetchedPage.getStatusCode());
+        page.setContentHash(contentHash);
 
-                SearchIndex index = new SearchIndex();
-                index.setPage(page);
-                index.setLemma(lemma);
-                index.setRank(count);
-                searchIndexRepository.save(index);
-            }
+        site.setStatusTime(LocalDateTime.now());
 
-        } catch (IOException e) {
-            return false;
+        if (fetchedPage.getStatusCode() < 400) {
+            page.setContent(html);
+            page.setTitle(document.title());
+            page.setText(document.text());
+        } else {
+            page.setContent("");
+            page.setTitle("");
+            page.setText("");
         }
 
+        Map<String, Integer> lemmas = lemmaFinder.collectLemmas(page.getText());
+        page.setLength(lemmas.values().stream().mapToInt(Integer::intValue).sum());
+
+        Map<String, IndexedLemma> previousLemmas = new HashMap<>();
+        if (oldPage != null) {
+            searchIndexRepository.findIndexedLemmasByPageId(oldPage.getId())
+                    .forEach(indexed -> previousLemmas.put(indexed.getLemma(), indexed));
+        }
+
+        siteRepository.save(site);
+        markCrawled(page, fetchedPage);
+
+        SortedMap<String, Integer> siteDeltas = frequencyDeltas.computeIfAbsent(site.getId(), id -> new TreeMap<>());
+        previousLemmas.keySet().forEach(lemma -> {
+            if (!lemmas.containsKey(lemma)) siteDeltas.merge(lemma, -1, Integer::sum);
+        });
+        lemmas.keySet().forEach(lemma -> {
+            if (!previousLemmas.containsKey(lemma)) siteDeltas.merge(lemma, 1, Integer::sum);
+        });
+        updates.add(new PageUpdate(site, page, lemmas, previousLemmas, oldPage == null, previousLength));
+
         return true;
     }
 
+    @Transactional
+    @Override
+    public void removePage(int pageId) {
+        pageRepository.findById(pageId).ifPresent(page -> {
+            int siteId = page.getSite().getId();
+            List<IndexedLemma> indexed = searchIndexRepository.findIndexedLemmasByPageId(pageId);
+            List<String> lemmas = indexed.stream().map(IndexedLemma::getLemma).toList();
+
+            SortedMap<String, Integer> frequencyDeltas = new TreeMap<>();
+            lemmas.forEach(lemma -> frequencyDeltas.put(lemma, -1));
+            lemmaRepository.upsertLemmas(siteId, frequencyDeltas);
+            searchIndexRepository.deleteByPageId(pageId);
+            if (!indexed.isEmpty()) {
+                lemmaRepository.deleteUnusedByIdIn(indexed.stream().map(IndexedLemma::getLemmaId).toList());
+            }
+            pageRepository.delete(page);
+            eventPublisher.publishEvent(new PageRemovedEvent(siteId, page.getSite().getUrl(), pageId, lemmas,
+                    page.getLength()));
+        });
+    }
+
+    private void markCrawled(Page page, FetchedPage fetchedPage) {
+        if (fetchedPage.getEtag() != null || !fetchedPage.isNotModified()) {
+            page.setEtag(fetchedPage.getEtag());
+        }
+        if (fetchedPage.getLastModified() != null || !fetchedPage.isNotModified()) {
+            page.setLastModified(fetchedPage.getLastModified());
+        }
+        page.setCrawledAt(LocalDateTime.now());
+        pageRepository.save(page);
+    }
+
+    private void applyLemmaChanges(PageUpdate update, Map<String, Integer> lemmaIds) {
+        int pageId = update.page().getId();
+        List<Integer> removedLemmaIds = new ArrayList<>();
+        Map<Integer, Float> changedRanks = new HashMap<>();
+        Map<Integer, Float> addedRanks = new HashMap<>();
+
+        update.previousLemmas().forEach((lemma, indexed) -> {
+            Integer count = update.lemmas().get(lemma);
+            if (count == null) {
+                removedLemmaIds.add(indexed.getLemmaId());
+            } else if (count.floatValue() != indexed.getRank()) {
+                changedRanks.put(indexed.getLemmaId(), count.floatValue());
+            }
+        });
+        update.lemmas().forEach((lemmaText, count) -> {
+            if (update.previousLemmas().containsKey(lemmaText)) return;
+
+            Integer lemmaId = lemmaIds.get(lemmaText);
+            if (lemmaId == null) {
+                throw new IllegalStateException("Не найден id леммы '" + lemmaText + "' сайта " + update.site().getId());
+            }
+            addedRanks.put(lemmaId, count.floatValue());
+        });
+
+        if (!removedLemmaIds.isEmpty()) {
+            searchIndexRepository.deleteByPageIdAndLemmaIdIn(pageId, removedLemmaIds);
+            lemmaRepository.deleteUnusedByIdIn(removedLemmaIds);
+        }
+        if (!changedRanks.isEmpty()) {
+            searchIndexRepository.updateRanks(pageId, changedRanks);
+        }
+        searchIndexRepository.insertAll(pageId, addedRanks);
+
+        Map<String, Float> previousRanks = new HashMap<>();
+        update.previousLemmas().forEach((lemma, indexed) -> previousRanks.put(lemma, indexed.getRank()));
+        eventPublisher.publishEvent(new PageIndexedEvent(update.site().getId(), update.site().getUrl(), pageId,
+                update.lemmas(), previousRanks, update.newPage(), update.previousLength()));
+    }
+
+    private String hash(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
 
     private String getRootUrl(String url) {
         try {
@@ -117,4 +258,17 @@ public class PageIndexingServiceImpl implements PageIndexingService {
             throw new IllegalArgumentException("Incorrect URL: " + url);
         }
     }
+
+    private String getPath(String url) {
+        try {
+            String file = new URL(url).getFile();
+            return file.isEmpty() ? "/" : file;
+        } catch (MalformedURLException e) {
+            throw new IllegalArgumentException("Incorrect URL: " + url);
+        }
+    }
+
+    private record PageUpdate(Site site, Page page, Map<String, Integer> lemmas,
+                              Map<String, IndexedLemma> previousLemmas, boolean newPage, int previousLength) {
+    }
 }
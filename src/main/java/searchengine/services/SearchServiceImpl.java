@@ -1,28 +1,30 @@
 package searchengine.services;
 
 import lombok.RequiredArgsConstructor;
-import org.jsoup.Jsoup;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import searchengine.dto.search.PageSummary;
 import searchengine.dto.search.SearchResponseDto;
 import searchengine.dto.search.SearchResultDto;
-import searchengine.model.Page;
-import searchengine.repositories.LemmaRepository;
-import searchengine.repositories.PageRepository;
-import searchengine.repositories.SearchIndexRepository;
-import searchengine.repositories.SiteRepository;
+import searchengine.index.LemmaStatistics;
+import searchengine.index.QueryResultCache;
+import searchengine.index.RankedPages;
+import searchengine.index.SearchBackend;
+import searchengine.index.SiteFanOut;
 import searchengine.services.tools.LemmaFinder;
+import searchengine.services.tools.SnippetBuilder;
 
-import java.io.IOException;
 import java.util.*;
 
 @Service
 @RequiredArgsConstructor
 public class SearchServiceImpl implements SearchService {
-    private final LemmaRepository lemmaRepository;
-    private final SearchIndexRepository searchIndexRepository;
-    private final PageRepository pageRepository;
-    private final SiteRepository siteRepository;
+    private final LemmaStatistics lemmaStatistics;
+    private final SearchBackend searchBackend;
+    private final QueryResultCache queryResultCache;
+    private final SiteFanOut siteFanOut;
+    private final LemmaFinder lemmaFinder;
+    private final SnippetBuilder snippetBuilder;
 
     @Value("${search.max-lemma-share}")
     private double maxLemmaShare;
@@ -32,84 +34,61 @@ public class SearchServiceImpl implements SearchService {
 
     @Override
     public SearchResponseDto search(String query, String siteUrl, int offset, int limit) {
-        try {
-            Map<String, Integer> lemmasFromQuery = new HashMap<>();
+        Map<String, Integer> lemmasFromQuery = new HashMap<>();
 
-            if (query != null && !query.isBlank()) {
-                LemmaFinder lemmaFinder = LemmaFinder.getInstance();
-                lemmasFromQuery = lemmaFinder.collectLemmas(query);
-            }
-
-            List<String> filteredLemmas = filterLemmas(lemmasFromQuery, siteUrl);
-
-            Set<Integer> pageIds = null;
-
-            for (String lemma : filteredLemmas) {
-                List<Integer> pages = searchIndexRepository.findPageIdByLemma(lemma);
-
-                if (pageIds == null) {
-                    pageIds = new HashSet<>(pages);
-                } else {
-                    pageIds.retainAll(pages);
-                }
-            }
-
-            if (pageIds == null || pageIds.isEmpty()) return SearchResponseDto.okEmpty();
+        if (query != null && !query.isBlank()) {
+            lemmasFromQuery = lemmaFinder.collectLemmas(query);
+        }
 
-            Map<Integer, Float> absRelevance = calculateAbsRelevance(pageIds, filteredLemmas);
-            Map<Integer, Float> relRelevance = new HashMap<>();
+        List<String> filteredLemmas = filterLemmas(lemmasFromQuery, siteUrl);
 
-            float maxAbsRelevance = Collections.max(absRelevance.values());
+        if (filteredLemmas.isEmpty()) return SearchResponseDto.okEmpty();
 
-            absRelevance.forEach((i, r) -> {
-                float rel = r / maxAbsRelevance;
-                relRelevance.put(i, rel);
-            });
+        RankedPages ranked = (siteUrl != null)
+                ? queryResultCache.get(filteredLemmas, siteUrl, offset, limit,
+                        () -> searchBackend.rank(filteredLemmas, siteUrl, offset, limit))
+                : siteFanOut.rank(filteredLemmas, offset, limit);
 
-            List<SearchResultDto> data = new ArrayList<>();
+        if (ranked.getTotal() == 0 && !ranked.isPartial()) return SearchResponseDto.okEmpty();
+        if (ranked.size() == 0) return SearchResponseDto.ok(List.of(), ranked.getTotal(), ranked.isPartial());
 
-            for (int id : pageIds) {
-                Optional<Page> page = pageRepository.findById(id);
-                float relevance = relRelevance.get(id);
-                String title = Jsoup.parse(page.get().getContent()).title();
-                String snippet = buildSnippet(page.get().getContent(), filteredLemmas, maxSnippetLength);
+        Map<Integer, PageSummary> pages = new HashMap<>();
+        searchBackend.findPages(Arrays.stream(ranked.getPageIds()).boxed().toList())
+                .forEach(page -> pages.put(page.getId(), page));
 
-                data.add(new SearchResultDto(
-                        page.get().getSite().getUrl(),
-                        page.get().getSite().getName(),
-                        page.get().getPath(),
-                        title,
-                        snippet,
-                        relevance
-                ));
-            }
+        List<SearchResultDto> data = new ArrayList<>();
 
-            data.sort((a, b) -> Float.compare((float) b.getRelevance(), (float) a.getRelevance()));
+        for (int i = 0; i < ranked.size(); i++) {
+            PageSummary page = pages.get(ranked.getPageIds()[i]);
+            if (page == null) continue;
 
-            int end = Math.min(offset + limit, data.size());
-            List<SearchResultDto> paged = data.subList(offset, end);
+            double relevance = ranked.getScores()[i] / ranked.getMaxScore();
+            String text = page.getText() != null ? page.getText() : "";
+            String snippet = snippetBuilder.build(text, filteredLemmas, maxSnippetLength);
 
-            return SearchResponseDto.ok(paged, paged.size());
-        } catch (IOException e) {
-            e.getMessage();
+            data.add(new SearchResultDto(
+                    page.getSiteUrl(),
+                    page.getSiteName(),
+                    page.getPath(),
+                    page.getTitle(),
+                    snippet,
+                    relevance
+            ));
         }
 
-        return SearchResponseDto.okEmpty();
+        return SearchResponseDto.ok(data, ranked.getTotal(), ranked.isPartial());
     }
 
     private List<String> filterLemmas(Map<String, Integer> lemmasFromQuery, String siteUrl) {
-        long totalPages = (siteUrl != null)
-                ? pageRepository.countBySiteUrl(siteUrl)
-                : pageRepository.count();
-
+        long totalPages = lemmaStatistics.getPageCount(siteUrl);
         long threshold = Math.max(1, Math.round(totalPages * maxLemmaShare));
 
         Map<String, Long> lemmaFreq = new HashMap<>();
 
         for (String lemma : lemmasFromQuery.keySet()) {
-            Long freq = lemmaRepository.findTotalFrequencyByLemma(lemma);
+            long freq = lemmaStatistics.getFrequency(lemma, siteUrl);
 
-            if (freq != null && freq > 0 && freq <= threshold) {
+            if (freq > 0 && freq <= threshold) {
                 lemmaFreq.put(lemma, freq);
             }
         }
@@ -120,58 +99,4 @@ public class SearchServiceImpl implements SearchService {
                 .map(Map.Entry::getKey)
                 .toList();
     }
-
-    private Map<Integer, Float> calculateAbsRelevance(Set<Integer> pageIds, List<String> filteredLemmas) {
-        Map<Integer, Float> absRelevance = new HashMap<>();
-
-        for (Integer id : pageIds) {
-            float sum = 0;
-
-            for (String lemma : filteredLemmas) {
-                Float rank = searchIndexRepository.findRankByPageIdAndLemma(id, lemma);
-
-                if (rank != null) sum += rank;
-            }
-
-            absRelevance.put(id, sum);
-        }
-
-        return absRelevance;
-    }
-
-    private String buildSnippet(String html, List<String> words, int maxSnippetLength) {
-        String text = Jsoup.parse(html).text();
-        int firstIndex = -1;
-        String firstWord = null;
-
-        for (String word : words) {
-            int idx = text.toLowerCase().indexOf(word.toLowerCase());
-
-            if (idx != -1 && (firstIndex == -1 || idx < firstIndex)) {
-                firstIndex = idx;
-                firstWord = word;
-            }
-        }
-
-        if (firstIndex == -1) {
-            String snippet = text.substring(0, Math.min(maxSnippetLength, text.length()));
-
-            for (String word : words) {
-                snippet = snippet.replaceAll("(?i)" + word, "<b>" + word + "</b>");
-            }
-            return snippet;
-        }
-
-        int radius = maxSnippetLength / 2;
-        int start = Math.max(0, firstIndex - radius);
-        int end = Math.min(text.length(), firstIndex + radius);
-
-        String snippet = text.substring(start, end);
-
-        for (String word : words) {
-            snippet = snippet.replaceAll("(?i)" + word, "<b>" + word + "</b>");
-        }
-
-        return snippet + "...";
-    }
 }
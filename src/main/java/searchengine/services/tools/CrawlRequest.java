@@ -0,0 +1,4 @@
+package searchengine.services.tools;
+
+public record CrawlRequest(String url, int depth) {
+}
@@ -0,0 +1,101 @@
+package searchengine.services.tools;
+
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import searchengine.config.IndexingConfig;
+import searchengine.dto.indexing.PageValidators;
+import searchengine.model.Site;
+import searchengine.repositories.PageRepository;
+import searchengine.repositories.SiteRepository;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+@Getter
+@Component
+public class CrawlScheduler {
+    private final IndexingConfig indexingConfig;
+    private final SiteRepository siteRepository;
+    private final PageRepository pageRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final IndexingQueue indexingQueue;
+    private final Fetcher fetcher;
+    private final LinkFilter linkFilter;
+    private final ScheduledExecutorService pump = Executors.newSingleThreadScheduledExecutor();
+    private final ExecutorService fetchers;
+    private final Map<String, HostSlot> hosts = new ConcurrentHashMap<>();
+
+    public CrawlScheduler(IndexingConfig indexingConfig, SiteRepository siteRepository,
+                          PageRepository pageRepository, TransactionTemplate transactionTemplate,
+                          IndexingQueue indexingQueue, Fetcher fetcher) {
+        this.indexingConfig = indexingConfig;
+        this.siteRepository = siteRepository;
+        this.pageRepository = pageRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.indexingQueue = indexingQueue;
+        this.fetcher = fetcher;
+        this.linkFilter = LinkFilter.from(indexingConfig);
+        this.fetchers = Executors.newFixedThreadPool(indexingConfig.getFetchThreads());
+    }
+
+    public Optional<FrontierLog.Snapshot> findUnfinishedCrawl(int siteId) {
+        return FrontierLog.read(frontierFile(siteId));
+    }
+
+    public SiteCrawler crawl(Site site, Map<String, PageValidators> knownPages,
+                             LocalDateTime crawlStart, FrontierLog.Snapshot resumeFrom) {
+        FrontierLog frontierLog = (resumeFrom != null)
+                ? FrontierLog.append(frontierFile(site.getId()))
+                : FrontierLog.create(frontierFile(site.getId()), crawlStart);
+        SiteCrawler crawler = new SiteCrawler(site, knownPages, this, frontierLog, resumeFrom);
+        crawler.start();
+        return crawler;
+    }
+
+    public void resetHosts() {
+        hosts.clear();
+    }
+
+    HostSlot hostSlot(String siteUrl) {
+        URI site = URI.create(siteUrl);
+        return hosts.computeIfAbsent(site.getHost().toLowerCase(Locale.ROOT),
+                host -> new HostSlot(fetchCrawlDelay(site)));
+    }
+
+    public void discardFrontier(int siteId) {
+        try {
+            Files.deleteIfExists(frontierFile(siteId));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private CompletableFuture<Long> fetchCrawlDelay(URI site) {
+        return fetcher.fetch(site.resolve("/robots.txt").toString(), null)
+                .handle((robots, error) -> (robots != null && robots.getStatusCode() == 200)
+                        ? RobotsTxt.parseCrawlDelayMillis(robots.getHtml(), indexingConfig.getUserAgent())
+                        : 0L);
+    }
+
+    private Path frontierFile(int siteId) {
+        return Path.of(indexingConfig.getFrontierDir(), "site-" + siteId + ".log");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pump.shutdownNow();
+        fetchers.shutdownNow();
+    }
+}
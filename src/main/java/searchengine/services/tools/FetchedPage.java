@@ -0,0 +1,20 @@
+package searchengine.services.tools;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jsoup.nodes.Document;
+
+@Getter
+@RequiredArgsConstructor
+public class FetchedPage {
+    private final String url;
+    private final int statusCode;
+    private final String html;
+    private final Document document;
+    private final String etag;
+    private final String lastModified;
+
+    public boolean isNotModified() {
+        return statusCode == 304;
+    }
+}
@@ -0,0 +1,9 @@
+package searchengine.services.tools;
+
+import searchengine.dto.indexing.PageValidators;
+
+import java.util.concurrent.CompletableFuture;
+
+public interface Fetcher {
+    CompletableFuture<FetchedPage> fetch(String url, PageValidators validators);
+}
@@ -0,0 +1,110 @@
+package searchengine.services.tools;
+
+public class FingerprintSet {
+    private static final int STRIPE_BITS = 4;
+    private static final int BLOOM_HASHES = 3;
+
+    private final Stripe[] stripes = new Stripe[1 << STRIPE_BITS];
+
+    public FingerprintSet(int expectedSize) {
+        int perStripe = Math.max(16, expectedSize >> STRIPE_BITS);
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(Integer.highestOneBit(perStripe * 2 - 1) * 2);
+        }
+    }
+
+    public static long fingerprint(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash == 0 ? 1 : hash;
+    }
+
+    public boolean add(long fingerprint) {
+        return stripeOf(fingerprint).add(fingerprint);
+    }
+
+    private Stripe stripeOf(long fingerprint) {
+        return stripes[(int) (fingerprint >>> (64 - STRIPE_BITS))];
+    }
+
+    private static final class Stripe {
+        private long[] table;
+        private long[] bloom;
+        private int size;
+
+        private Stripe(int capacity) {
+            table = new long[capacity];
+            bloom = new long[Math.max(1, capacity >> 4)];
+        }
+
+        private synchronized boolean add(long fingerprint) {
+            if (mightContain(fingerprint)) {
+                if (indexOf(fingerprint) >= 0) return false;
+            } else {
+                markBloom(fingerprint);
+            }
+
+            insert(fingerprint);
+            if (++size * 2 > table.length) grow();
+            return true;
+        }
+
+        private int indexOf(long fingerprint) {
+            int mask = table.length - 1;
+            for (int i = (int) fingerprint & mask; table[i] != 0; i = (i + 1) & mask) {
+                if (table[i] == fingerprint) return i;
+            }
+            return -1;
+        }
+
+        private void insert(long fingerprint) {
+            int mask = table.length - 1;
+            int i = (int) fingerprint & mask;
+            while (table[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            table[i] = fingerprint;
+        }
+
+        private void grow() {
+            long[] old = table;
+            table = new long[old.length * 2];
+            bloom = new long[table.length >> 4];
+            for (long fingerprint : old) {
+                if (fingerprint != 0) {
+                    insert(fingerprint);
+                    markBloom(fingerprint);
+                }
+            }
+        }
+
+        private boolean mightContain(long fingerprint) {
+            int bits = bloom.length * 64 - 1;
+            int h1 = (int) (fingerprint >>> 16);
+            int h2 = (int) (fingerprint >>> 36) | 1;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & bits;
+                if ((bloom[bit >>> 6] & (1L << bit)) == 0) return false;
+            }
+            return true;
+        }
+
+        private void markBloom(long fingerprint) {
+            int bits = bloom.length * 64 - 1;
+            int h1 = (int) (fingerprint >>> 16);
+            int h2 = (int) (fingerprint >>> 36) | 1;
+            for (int i = 0; i < BLOOM_HASHES; i++) {
+                int bit = (h1 + i * h2) & bits;
+                bloom[bit >>> 6] |= 1L << bit;
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package searchengine.services.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public class FrontierLog {
+    private static final int FLUSH_EVERY = 256;
+
+    private final Path file;
+    private BufferedWriter writer;
+    private int unflushed;
+
+    private FrontierLog(Path file, BufferedWriter writer) {
+        this.file = file;
+        this.writer = writer;
+    }
+
+    public static FrontierLog create(Path file, LocalDateTime crawlStart) {
+        try {
+            Files.createDirectories(file.getParent());
+            FrontierLog log = new FrontierLog(file, Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+            log.write("S " + crawlStart);
+            log.flush();
+            return log;
+        } catch (IOException e) {
+            return new FrontierLog(file, null);
+        }
+    }
+
+    public static FrontierLog append(Path file) {
+        try {
+            BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+            writer.newLine();
+            return new FrontierLog(file, writer);
+        } catch (IOException e) {
+            return new FrontierLog(file, null);
+        }
+    }
+
+    public static Optional<Snapshot> read(Path file) {
+        LocalDateTime crawlStart = null;
+        Map<String, CrawlRequest> queued = new LinkedHashMap<>();
+        List<String> visited = new ArrayList<>();
+        boolean rootFetched = false;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("S ")) {
+                    crawlStart = LocalDateTime.parse(line.substring(2));
+                } else if (line.startsWith("Q ")) {
+                    int space = line.indexOf(' ', 2);
+                    if (space < 0) continue;
+                    String url = line.substring(space + 1);
+                    queued.putIfAbsent(url, new CrawlRequest(url, Integer.parseInt(line.substring(2, space))));
+                } else if (line.startsWith("V ")) {
+                    visited.add(line.substring(2));
+                } else if (line.equals("R")) {
+                    rootFetched = true;
+                }
+            }
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException | DateTimeParseException | NumberFormatException e) {
+            if (crawlStart == null) return Optional.empty();
+        }
+
+        if (crawlStart == null) return Optional.empty();
+
+        List<String> seen = new ArrayList<>(queued.keySet());
+        visited.forEach(queued::remove);
+        return Optional.of(new Snapshot(crawlStart, new ArrayList<>(queued.values()), seen, rootFetched));
+    }
+
+    public void queued(CrawlRequest request) {
+        write("Q " + request.depth() + " " + request.url());
+    }
+
+    public void visited(String url) {
+        write("V " + url);
+    }
+
+    public void rootFetched() {
+        write("R");
+    }
+
+    public void close() {
+        if (writer == null) return;
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+        }
+        writer = null;
+    }
+
+    public void delete() {
+        close();
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void write(String record) {
+        if (writer == null) return;
+        try {
+            writer.write(record);
+            writer.newLine();
+            if (++unflushed >= FLUSH_EVERY) flush();
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    private void flush() throws IOException {
+        writer.flush();
+        unflushed = 0;
+    }
+
+    public record Snapshot(LocalDateTime crawlStart, List<CrawlRequest> pending, List<String> seen, boolean rootFetched) {
+    }
+}
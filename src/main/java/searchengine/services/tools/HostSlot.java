@@ -0,0 +1,50 @@
+package searchengine.services.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+class HostSlot {
+    private final CompletableFuture<Long> crawlDelay;
+    private final List<Runnable> waiters = new ArrayList<>();
+    private long nextAllowedTime;
+    private boolean busy;
+
+    HostSlot(CompletableFuture<Long> crawlDelay) {
+        this.crawlDelay = crawlDelay;
+    }
+
+    CompletableFuture<Long> getCrawlDelay() {
+        return crawlDelay;
+    }
+
+    long getCrawlDelayMillis() {
+        return crawlDelay.getNow(0L);
+    }
+
+    synchronized long getNextAllowedTime() {
+        return nextAllowedTime;
+    }
+
+    synchronized long tryAcquire(long now, Runnable waiter) {
+        if (busy) {
+            waiters.add(waiter);
+            return -1;
+        }
+        if (now < nextAllowedTime) return nextAllowedTime - now;
+
+        busy = true;
+        return 0;
+    }
+
+    void release(long nextAllowedTime) {
+        List<Runnable> ready;
+        synchronized (this) {
+            busy = false;
+            this.nextAllowedTime = nextAllowedTime;
+            ready = List.copyOf(waiters);
+            waiters.clear();
+        }
+        ready.forEach(Runnable::run);
+    }
+}
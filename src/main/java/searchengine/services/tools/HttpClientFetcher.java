@@ -0,0 +1,231 @@
+package searchengine.services.tools;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.springframework.stereotype.Component;
+import searchengine.config.IndexingConfig;
+import searchengine.dto.indexing.PageValidators;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+@Component
+public class HttpClientFetcher implements Fetcher {
+    private static final Pattern XML_CONTENT_TYPE = Pattern.compile("(application|text)/\\w*\\+?xml.*");
+
+    private final IndexingConfig indexingConfig;
+    private final HttpClient httpClient;
+    private final ExecutorService readers;
+
+    public HttpClientFetcher(IndexingConfig indexingConfig) {
+        this.indexingConfig = indexingConfig;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .connectTimeout(Duration.ofMillis(indexingConfig.getFetchTimeoutMillis()))
+                .build();
+        this.readers = Executors.newFixedThreadPool(indexingConfig.getFetchThreads());
+    }
+
+    @Override
+    public CompletableFuture<FetchedPage> fetch(String url, PageValidators validators) {
+        HttpRequest.Builder request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofMillis(indexingConfig.getFetchTimeoutMillis()))
+                    .header("User-Agent", indexingConfig.getUserAgent())
+                    .header("Referer", indexingConfig.getReferrer())
+                    .header("Accept-Encoding", "gzip, deflate");
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        if (validators != null && validators.getEtag() != null) {
+            request.header("If-None-Match", validators.getEtag());
+        }
+        if (validators != null && validators.getLastModified() != null) {
+            request.header("If-Modified-Since", validators.getLastModified());
+        }
+
+        int timeout = indexingConfig.getFetchTimeoutMillis();
+        CompletableFuture<HttpResponse<byte[]>> response = httpClient.sendAsync(request.build(), this::subscribe);
+        CompletableFuture<FetchedPage> page = response.thenApplyAsync(r -> read(url, r), readers);
+        CompletableFuture.delayedExecutor(timeout, TimeUnit.MILLISECONDS).execute(() -> {
+            if (page.completeExceptionally(new TimeoutException("Превышено время загрузки " + timeout + " мс"))) {
+                response.cancel(true);
+            }
+        });
+        return page;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        readers.shutdownNow();
+    }
+
+    private HttpResponse.BodySubscriber<byte[]> subscribe(HttpResponse.ResponseInfo info) {
+        String contentType = info.headers().firstValue("Content-Type").orElse(null);
+        if (info.statusCode() < 400 && !isSupported(contentType)) {
+            return HttpResponse.BodySubscribers.replacing(null);
+        }
+        return new LimitedBodySubscriber(indexingConfig.getMaxBodyBytes());
+    }
+
+    private FetchedPage read(String url, HttpResponse<byte[]> response) {
+        String contentType = response.headers().firstValue("Content-Type").orElse(null);
+        if (response.body() == null) {
+            throw new UncheckedIOException(new IOException("Неподдерживаемый тип содержимого: " + contentType));
+        }
+
+        Charset charset = charsetOf(contentType);
+        byte[] bytes = decode(response);
+
+        Document doc = null;
+        String html;
+        if (response.statusCode() < 400 && isHtml(contentType)) {
+            try {
+                doc = Jsoup.parse(new ByteArrayInputStream(bytes), charset != null ? charset.name() : null, url);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            html = new String(bytes, doc.charset());
+        } else {
+            html = new String(bytes, charset != null ? charset : StandardCharsets.UTF_8);
+        }
+
+        return new FetchedPage(url, response.statusCode(), html, doc,
+                response.headers().firstValue("ETag").orElse(null),
+                response.headers().firstValue("Last-Modified").orElse(null));
+    }
+
+    private byte[] decode(HttpResponse<byte[]> response) {
+        String encoding = response.headers().firstValue("Content-Encoding").orElse("").trim().toLowerCase(Locale.ROOT);
+        if (!encoding.equals("gzip") && !encoding.equals("x-gzip") && !encoding.equals("deflate")) {
+            return response.body();
+        }
+
+        int maxBodyBytes = indexingConfig.getMaxBodyBytes();
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        try (InputStream body = encoding.equals("deflate")
+                ? new InflaterInputStream(new ByteArrayInputStream(response.body()))
+                : new GZIPInputStream(new ByteArrayInputStream(response.body()))) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while (decoded.size() < maxBodyBytes
+                    && (read = body.read(buffer, 0, Math.min(buffer.length, maxBodyBytes - decoded.size()))) > 0) {
+                decoded.write(buffer, 0, read);
+            }
+        } catch (EOFException e) {
+            // the compressed body was cut at maxBodyBytes, keep what was inflated
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return decoded.toByteArray();
+    }
+
+    private boolean isSupported(String contentType) {
+        if (contentType == null) return true;
+
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/") || XML_CONTENT_TYPE.matcher(type).matches();
+    }
+
+    private boolean isHtml(String contentType) {
+        if (contentType == null) return false;
+
+        String type = contentType.toLowerCase(Locale.ROOT);
+        return type.startsWith("text/html") || type.startsWith("application/xhtml+xml");
+    }
+
+    private Charset charsetOf(String contentType) {
+        if (contentType == null) return null;
+
+        for (String parameter : contentType.split(";")) {
+            String[] pair = parameter.trim().split("=", 2);
+            if (pair.length == 2 && pair[0].trim().equalsIgnoreCase("charset")) {
+                try {
+                    return Charset.forName(pair[1].trim().replace("\"", ""));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+
+    private static class LimitedBodySubscriber implements HttpResponse.BodySubscriber<byte[]> {
+        private final int limit;
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        private final CompletableFuture<byte[]> result = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+
+        LimitedBodySubscriber(int limit) {
+            this.limit = limit;
+        }
+
+        @Override
+        public CompletionStage<byte[]> getBody() {
+            return result;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> buffers) {
+            if (result.isDone()) return;
+
+            for (ByteBuffer buffer : buffers) {
+                int length = Math.min(buffer.remaining(), limit - body.size());
+                byte[] chunk = new byte[length];
+                buffer.get(chunk);
+                body.write(chunk, 0, length);
+            }
+
+            if (body.size() >= limit) {
+                subscription.cancel();
+                result.complete(body.toByteArray());
+            } else {
+                subscription.request(1);
+            }
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            result.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            result.complete(body.toByteArray());
+        }
+    }
+}
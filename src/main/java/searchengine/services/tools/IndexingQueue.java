@@ -0,0 +1,188 @@
+package searchengine.services.tools;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DeadlockLoserDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import searchengine.config.IndexingConfig;
+import searchengine.repositories.SiteRepository;
+import searchengine.services.PageIndexingService;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+@RequiredArgsConstructor
+@Component
+public class IndexingQueue {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final PageIndexingService pageIndexingService;
+    private final TransactionTemplate transactionTemplate;
+    private final SiteRepository siteRepository;
+    private final IndexingConfig indexingConfig;
+    private final Map<Integer, AtomicInteger> pending = new ConcurrentHashMap<>();
+    private BlockingQueue<QueuedPage> queue;
+    private ExecutorService workers;
+
+    @PostConstruct
+    public void start() {
+        requirePositive("indexing.indexerThreads", indexingConfig.getIndexerThreads());
+        requirePositive("indexing.queueCapacity", indexingConfig.getQueueCapacity());
+        requirePositive("indexing.batchSize", indexingConfig.getBatchSize());
+
+        queue = new ArrayBlockingQueue<>(indexingConfig.getQueueCapacity());
+        workers = Executors.newFixedThreadPool(indexingConfig.getIndexerThreads());
+
+        for (int i = 0; i < indexingConfig.getIndexerThreads(); i++) {
+            workers.execute(this::drain);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    public void submit(int siteId, FetchedPage page, Consumer<Boolean> onIndexed) throws InterruptedException {
+        pendingCounter(siteId).incrementAndGet();
+        try {
+            queue.put(new QueuedPage(siteId, page, onIndexed));
+        } catch (InterruptedException e) {
+            complete(siteId);
+            throw e;
+        }
+    }
+
+    public void awaitSite(int siteId) throws InterruptedException {
+        AtomicInteger counter = pendingCounter(siteId);
+        synchronized (counter) {
+            while (counter.get() > 0) {
+                counter.wait();
+            }
+        }
+    }
+
+    public void discard() {
+        List<QueuedPage> discarded = new ArrayList<>();
+        queue.drainTo(discarded);
+        discarded.forEach(page -> complete(page.siteId()));
+    }
+
+    private void drain() {
+        List<QueuedPage> batch = new ArrayList<>(indexingConfig.getBatchSize());
+
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, indexingConfig.getBatchSize() - 1);
+
+            try {
+                indexBatch(batch);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void indexBatch(List<QueuedPage> batch) {
+        List<QueuedPage> chunk = new ArrayList<>(batch.size());
+        Set<String> urls = new HashSet<>();
+
+        for (QueuedPage page : batch) {
+            String url = UrlNormalizer.normalize(page.page().getUrl());
+            if (!urls.add(url != null ? url : page.page().getUrl())) {
+                indexChunk(chunk);
+                chunk.clear();
+                urls.clear();
+                urls.add(url != null ? url : page.page().getUrl());
+            }
+            chunk.add(page);
+        }
+        indexChunk(chunk);
+    }
+
+    private void indexChunk(List<QueuedPage> chunk) {
+        if (chunk.size() > 1) {
+            try {
+                indexWithRetry(chunk);
+                chunk.forEach(page -> finish(page, true));
+                return;
+            } catch (RuntimeException e) {
+                // one broken page must not fail the whole batch, index the pages one by one
+            }
+        }
+
+        for (QueuedPage page : chunk) {
+            boolean indexed = false;
+            try {
+                indexWithRetry(List.of(page));
+                indexed = true;
+            } catch (RuntimeException e) {
+                recordError(page, e);
+            } finally {
+                finish(page, indexed);
+            }
+        }
+    }
+
+    private void indexWithRetry(List<QueuedPage> pages) {
+        List<FetchedPage> fetchedPages = pages.stream().map(QueuedPage::page).toList();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                pageIndexingService.indexPages(fetchedPages);
+                return;
+            } catch (DeadlockLoserDataAccessException e) {
+                if (attempt == MAX_ATTEMPTS) throw e;
+            }
+        }
+    }
+
+    private void finish(QueuedPage page, boolean indexed) {
+        page.onIndexed().accept(indexed);
+        complete(page.siteId());
+    }
+
+    private void recordError(QueuedPage page, RuntimeException e) {
+        transactionTemplate.executeWithoutResult(status ->
+                siteRepository.findById(page.siteId()).ifPresent(site -> {
+                    site.setLastError("Ошибка индексации страницы " + page.page().getUrl() + ": " + e.getMessage());
+                    site.setStatusTime(LocalDateTime.now());
+                    siteRepository.save(site);
+                }));
+    }
+
+    private void complete(int siteId) {
+        AtomicInteger counter = pendingCounter(siteId);
+        if (counter.decrementAndGet() <= 0) {
+            synchronized (counter) {
+                counter.notifyAll();
+            }
+        }
+    }
+
+    private void requirePositive(String property, int value) {
+        if (value < 1) {
+            throw new IllegalStateException("Параметр " + property + " должен быть больше 0, указано: " + value);
+        }
+    }
+
+    private AtomicInteger pendingCounter(int siteId) {
+        return pending.computeIfAbsent(siteId, id -> new AtomicInteger());
+    }
+
+    private record QueuedPage(int siteId, FetchedPage page, Consumer<Boolean> onIndexed) {
+    }
+}
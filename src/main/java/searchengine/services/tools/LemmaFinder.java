@@ -1,59 +1,77 @@
 package searchengine.services.tools;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 import org.apache.lucene.morphology.LuceneMorphology;
-import org.apache.lucene.morphology.russian.RussianLuceneMorphology;
-import org.jsoup.Jsoup;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
 
-import java.io.IOException;
 import java.util.*;
 
+@Component
 public class LemmaFinder {
     private final LuceneMorphology luceneMorphology;
+    private final Cache<String, String> lemmaCache;
     private static final String[] particlesNames = new String[]{"МЕЖД", "ПРЕДЛ", "СОЮЗ"};
+    private static final String NO_LEMMA = "";
+    private static final int MAX_WORD_LENGTH = 64;
 
-    public static LemmaFinder getInstance() throws IOException {
-        LuceneMorphology morphology = new RussianLuceneMorphology();
-        return new LemmaFinder(morphology);
-    }
-
-    private LemmaFinder(LuceneMorphology luceneMorphology) {
+    public LemmaFinder(LuceneMorphology luceneMorphology,
+                       @Value("${lemma-cache.max-entries}") long maxCacheEntries) {
         this.luceneMorphology = luceneMorphology;
+        this.lemmaCache = Caffeine.newBuilder()
+                .maximumSize(maxCacheEntries)
+                .recordStats()
+                .build();
     }
 
-    public Map<String, Integer> collectLemmas(String text) {
-        String[] words = splitToRussianWords(text);
+    public Map<String, Integer> collectLemmas(CharSequence text) {
         Map<String, Integer> lemmas = new HashMap<>();
 
-        for (String word : words) {
-            if (word.isBlank()) continue;
+        WordTokenizer.tokenize(text, (source, start, end, cyrillic) -> {
+            String normalForm = lemmatize(source, start, end, cyrillic);
+            if (normalForm != null) {
+                lemmas.merge(normalForm, 1, Integer::sum);
+            }
+        });
+        return lemmas;
+    }
 
-            List<String> morphInfo = luceneMorphology.getMorphInfo(word);
-            if (anyWordBaseBelongToParticle(morphInfo)) continue;
+    public String lemmatize(CharSequence text, int start, int end, boolean cyrillic) {
+        if (end - start > MAX_WORD_LENGTH) return null;
 
-            List<String> normalForms = luceneMorphology.getNormalForms(word);
-            if (normalForms.isEmpty()) continue;
+        char[] word = new char[end - start];
+        for (int i = start; i < end; i++) {
+            word[i - start] = WordTokenizer.normalize(text.charAt(i));
+        }
 
-            String normalForm = normalForms.get(0);
+        String wordForm = new String(word);
+        String normalForm = cyrillic ? lemmaCache.get(wordForm, this::findLemma) : wordForm;
+        return normalForm.isEmpty() ? null : normalForm;
+    }
 
-            lemmas.put(normalForm, lemmas.getOrDefault(normalForm, 0) + 1);
-        }
-        return lemmas;
+    public CacheStats getCacheStats() {
+        return lemmaCache.stats();
     }
 
-    private boolean anyWordBaseBelongToParticle(List<String> wordBaseForms) {
-        return wordBaseForms.stream()
-                .map(String::toUpperCase)
-                .anyMatch(base -> Arrays.stream(particlesNames).anyMatch(base::contains));
+    public long getCacheSize() {
+        return lemmaCache.estimatedSize();
     }
 
-    private String[] splitToRussianWords(String text) {
-        return text.toLowerCase(Locale.ROOT)
-                .replaceAll("[^а-я\\s]", " ")
-                .trim()
-                .split("\\s+");
+    private String findLemma(String word) {
+        List<String> morphInfo = luceneMorphology.getMorphInfo(word);
+        if (anyWordBaseBelongToParticle(morphInfo)) return NO_LEMMA;
+
+        List<String> normalForms = luceneMorphology.getNormalForms(word);
+        if (normalForms.isEmpty()) return NO_LEMMA;
+
+        return normalForms.get(0);
     }
 
-    public String clearHtml(String html) {
-        return Jsoup.parse(html).text();
+    private boolean anyWordBaseBelongToParticle(List<String> wordBaseForms) {
+        return wordBaseForms.stream()
+                .map(String::toUpperCase)
+                .anyMatch(base -> Arrays.stream(particlesNames).anyMatch(base::contains));
     }
 }
@@ -0,0 +1,84 @@
+package searchengine.services.tools;
+
+import searchengine.config.IndexingConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class LinkFilter {
+    private final List<Rule> rules = new ArrayList<>();
+
+    private LinkFilter() {
+    }
+
+    public static LinkFilter from(IndexingConfig indexingConfig) {
+        LinkFilter filter = new LinkFilter();
+
+        String[] extensions = indexingConfig.getExcludedExtensions().stream()
+                .map(extension -> extension.toLowerCase(Locale.ROOT))
+                .distinct()
+                .toArray(String[]::new);
+        if (extensions.length > 0) {
+            filter.rules.add((url, pathStart, pathEnd, depth) -> !hasExtension(url, pathStart, pathEnd, extensions));
+        }
+
+        List<String> includes = List.copyOf(indexingConfig.getIncludePaths());
+        if (!includes.isEmpty()) {
+            filter.rules.add((url, pathStart, pathEnd, depth) -> includes.stream()
+                    .anyMatch(prefix -> pathStartsWith(url, pathStart, pathEnd, prefix)));
+        }
+
+        List<String> excludes = List.copyOf(indexingConfig.getExcludePaths());
+        if (!excludes.isEmpty()) {
+            filter.rules.add((url, pathStart, pathEnd, depth) -> excludes.stream()
+                    .noneMatch(prefix -> pathStartsWith(url, pathStart, pathEnd, prefix)));
+        }
+
+        int maxDepth = indexingConfig.getMaxDepth();
+        if (maxDepth > 0) {
+            filter.rules.add((url, pathStart, pathEnd, depth) -> depth <= maxDepth);
+        }
+
+        int maxQueryLength = indexingConfig.getMaxQueryLength();
+        if (maxQueryLength > 0) {
+            filter.rules.add((url, pathStart, pathEnd, depth) ->
+                    pathEnd == url.length() || url.length() - pathEnd - 1 <= maxQueryLength);
+        }
+
+        return filter;
+    }
+
+    public boolean accept(String url, String siteUrl, int depth) {
+        if (url == null || !url.startsWith(siteUrl)) return false;
+
+        int pathStart = siteUrl.endsWith("/") ? siteUrl.length() - 1 : siteUrl.length();
+        int queryStart = url.indexOf('?', pathStart);
+        int pathEnd = queryStart >= 0 ? queryStart : url.length();
+
+        for (Rule rule : rules) {
+            if (!rule.accept(url, pathStart, pathEnd, depth)) return false;
+        }
+        return true;
+    }
+
+    private static boolean hasExtension(String url, int pathStart, int pathEnd, String[] extensions) {
+        int dot = url.lastIndexOf('.', pathEnd - 1);
+        if (dot < pathStart || dot < url.lastIndexOf('/', pathEnd - 1)) return false;
+
+        int length = pathEnd - dot - 1;
+        for (String extension : extensions) {
+            if (extension.length() == length && url.regionMatches(true, dot + 1, extension, 0, length)) return true;
+        }
+        return false;
+    }
+
+    private static boolean pathStartsWith(String url, int pathStart, int pathEnd, String prefix) {
+        if (pathStart == pathEnd) return "/".startsWith(prefix);
+        return prefix.length() <= pathEnd - pathStart && url.startsWith(prefix, pathStart);
+    }
+
+    private interface Rule {
+        boolean accept(String url, int pathStart, int pathEnd, int depth);
+    }
+}
@@ -0,0 +1,57 @@
+package searchengine.services.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public final class RobotsTxt {
+
+    private RobotsTxt() {
+    }
+
+    public static long parseCrawlDelayMillis(String robotsTxt, String userAgent) {
+        String agent = userAgent.toLowerCase(Locale.ROOT);
+        List<String> groupAgents = new ArrayList<>();
+        boolean readingAgents = false;
+        long genericDelay = -1;
+        long specificDelay = -1;
+
+        for (String line : robotsTxt.split("\\R")) {
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+
+            int colon = line.indexOf(':');
+            if (colon < 0) continue;
+
+            String key = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+
+            if (key.equals("user-agent")) {
+                if (!readingAgents) groupAgents.clear();
+                readingAgents = true;
+                groupAgents.add(value.toLowerCase(Locale.ROOT));
+                continue;
+            }
+            readingAgents = false;
+
+            if (!key.equals("crawl-delay")) continue;
+
+            long delay;
+            try {
+                delay = Math.round(Double.parseDouble(value) * 1000);
+            } catch (NumberFormatException e) {
+                continue;
+            }
+
+            for (String groupAgent : groupAgents) {
+                if (groupAgent.equals("*")) {
+                    genericDelay = delay;
+                } else if (!groupAgent.isEmpty() && agent.contains(groupAgent)) {
+                    specificDelay = delay;
+                }
+            }
+        }
+
+        return specificDelay >= 0 ? specificDelay : Math.max(genericDelay, 0);
+    }
+}
@@ -1,165 +1,257 @@
 package searchengine.services.tools;
 
-import org.jsoup.Connection;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
-import org.jsoup.select.Elements;
-import org.springframework.transaction.support.TransactionTemplate;
-import searchengine.config.IndexingConfig;
+import searchengine.dto.indexing.PageValidators;
 import searchengine.model.Site;
 import searchengine.model.Status;
-import searchengine.repositories.PageRepository;
-import searchengine.repositories.SiteRepository;
-import searchengine.services.PageIndexingService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.ArrayDeque;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.RecursiveAction;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
-public class SiteCrawler extends RecursiveAction {
-    private final String url;
+public class SiteCrawler {
     private final Site site;
-    private final IndexingConfig indexingConfig;
-    private final SiteRepository siteRepository;
-    private final PageRepository pageRepository;
-    private final Set<String> visited;
-    private final TransactionTemplate transactionTemplate;
-    private final PageIndexingService pageIndexingService;
-    private static volatile boolean stopped = false;
-
-    public SiteCrawler(Site site, String url, IndexingConfig indexingConfig,
-                       SiteRepository siteRepository, PageRepository pageRepository,
-                       Set<String> visited, TransactionTemplate transactionTemplate, PageIndexingService pageIndexingService) {
+    private final Map<String, PageValidators> knownPages;
+    private final CrawlScheduler scheduler;
+    private final FrontierLog frontierLog;
+    private final FrontierLog.Snapshot resumeFrom;
+    private final HostSlot hostSlot;
+    private final Queue<CrawlRequest> frontier = new ArrayDeque<>();
+    private final FingerprintSet visited = new FingerprintSet(1 << 16);
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private final Set<String> failedPathKeys = ConcurrentHashMap.newKeySet();
+    private boolean inFlight;
+    private boolean dispatchScheduled;
+    private volatile boolean stopped;
+    private volatile boolean rootFetched;
+
+    SiteCrawler(Site site, Map<String, PageValidators> knownPages, CrawlScheduler scheduler,
+                FrontierLog frontierLog, FrontierLog.Snapshot resumeFrom) {
         this.site = site;
-        this.url = url;
-        this.indexingConfig = indexingConfig;
-        this.siteRepository = siteRepository;
-        this.pageRepository = pageRepository;
-        this.visited = (visited != null) ? visited : ConcurrentHashMap.newKeySet();
-        this.transactionTemplate = transactionTemplate;
-        this.pageIndexingService = pageIndexingService;
-    }
-
-    @Override
-    protected void compute() {
-        if (stopped || Thread.currentThread().isInterrupted()) {
+        this.knownPages = knownPages;
+        this.scheduler = scheduler;
+        this.frontierLog = frontierLog;
+        this.resumeFrom = resumeFrom;
+        this.hostSlot = scheduler.hostSlot(site.getUrl());
+    }
+
+    public CompletableFuture<Void> getCompletion() {
+        return completion;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    public boolean isRootFetched() {
+        return rootFetched;
+    }
+
+    public Set<String> getFailedPathKeys() {
+        return failedPathKeys;
+    }
+
+    public void stop() {
+        stopped = true;
+        synchronized (this) {
+            frontier.clear();
+            if (!inFlight) finish();
+        }
+    }
+
+    void start() {
+        synchronized (this) {
+            inFlight = true;
+        }
+        hostSlot.getCrawlDelay().whenCompleteAsync((crawlDelay, error) -> {
+            synchronized (this) {
+                inFlight = false;
+                if (resumeFrom != null) {
+                    rootFetched = resumeFrom.rootFetched();
+                    resumeFrom.seen().forEach(this::markSeen);
+                    frontier.addAll(resumeFrom.pending());
+                } else {
+                    enqueue(site.getUrl(), 0);
+                }
+                scheduleNext();
+            }
+        }, scheduler.getFetchers());
+    }
+
+    private synchronized void scheduleNext() {
+        if (inFlight || dispatchScheduled) return;
+        if (stopped || frontier.isEmpty()) {
+            finish();
             return;
         }
 
-        String path = getPath(url, site.getUrl());
-        if (path == null) return;
-        if (!visited.add(path)) return;
+        dispatchScheduled = true;
+        long delay = Math.max(0, hostSlot.getNextAllowedTime() - System.currentTimeMillis());
+        scheduler.getPump().schedule(this::dispatch, delay, TimeUnit.MILLISECONDS);
+    }
 
-        try {
-            Thread.sleep(getRandomDelay());
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+    private synchronized void dispatch() {
+        dispatchScheduled = false;
+        if (stopped || frontier.isEmpty()) {
+            finish();
             return;
         }
 
-        try {
-            Connection.Response response = Jsoup.connect(url)
-                    .userAgent(indexingConfig.getUserAgent())
-                    .referrer(indexingConfig.getReferrer())
-                    .timeout(10000)
-                    .ignoreHttpErrors(true)
-                    .execute();
+        long wait = hostSlot.tryAcquire(System.currentTimeMillis(), this::onHostReleased);
+        if (wait != 0) {
+            dispatchScheduled = true;
+            if (wait > 0) scheduler.getPump().schedule(this::dispatch, wait, TimeUnit.MILLISECONDS);
+            return;
+        }
 
-            int code = response.statusCode();
-            String contentType = response.contentType();
-            boolean isHtml = contentType != null && contentType.toLowerCase().startsWith("text/html");
+        CrawlRequest request = frontier.poll();
+        inFlight = true;
+        String pathKey = getPathKey(request.url(), site.getUrl());
+        scheduler.getFetcher().fetch(request.url(), knownPages.get(pathKey)).whenCompleteAsync((page, error) -> {
+            CompletableFuture<Boolean> indexed = new CompletableFuture<>();
+            CompletableFuture<Void> linksLogged = new CompletableFuture<>();
+            indexed.thenAcceptBoth(linksLogged, (committed, ignored) -> {
+                if (committed) markVisited(request.url());
+            });
 
             Document doc = null;
-
-            if (code < 400 && isHtml) {
-                doc = response.parse();
+            boolean root = false;
+            if (error == null) {
+                doc = process(pathKey, page, indexed);
+                root = request.depth() == 0 && page.getStatusCode() < 400;
+            } else {
+                failedPathKeys.add(pathKey);
+                recordError(error instanceof CompletionException ? error.getCause() : error);
             }
+            Set<String> links = (doc != null) ? collectLinks(doc, request.depth() + 1) : Set.of();
+            hostSlot.release(System.currentTimeMillis() + Math.max(getRandomDelay(), hostSlot.getCrawlDelayMillis()));
 
-            if (!stopped) {
-                pageIndexingService.indexPage(url);
-
-                transactionTemplate.execute(status -> {
-                    Site currentSite = siteRepository.findById(site.getId()).orElse(null);
-                    if (currentSite != null && currentSite.getStatus() == Status.INDEXING) {
-                        currentSite.setStatusTime(LocalDateTime.now());
-                        siteRepository.save(currentSite);
-                    }
-                    return null;
-                });
+            synchronized (this) {
+                inFlight = false;
+                if (root) {
+                    rootFetched = true;
+                    frontierLog.rootFetched();
+                }
+                if (!stopped) {
+                    links.forEach(link -> enqueue(link, request.depth() + 1));
+                    linksLogged.complete(null);
+                }
+                scheduleNext();
             }
+        }, scheduler.getFetchers());
+    }
 
-            if (doc != null) {
-                Elements links = doc.select("a[href]");
-                List<SiteCrawler> subtasks = new ArrayList<>();
+    private synchronized void onHostReleased() {
+        dispatchScheduled = false;
+        scheduleNext();
+    }
 
-                for (Element link : links) {
-                    if (stopped || Thread.currentThread().isInterrupted()) {
-                        return;
-                    }
+    private Set<String> collectLinks(Document doc, int depth) {
+        Set<String> links = new LinkedHashSet<>();
+        for (Element link : doc.select("a[href]")) {
+            String absUrl = link.absUrl("href");
+            int hash = absUrl.indexOf('#');
+            links.add(hash >= 0 ? absUrl.substring(0, hash) : absUrl);
+        }
+        links.removeIf(link -> !scheduler.getLinkFilter().accept(link, site.getUrl(), depth));
+        return links;
+    }
 
-                    String absUrl = link.absUrl("href");
-                    if (!isValidLink(absUrl, site.getUrl(), visited)) continue;
+    private void enqueue(String url, int depth) {
+        if (getPathKey(url, site.getUrl()) != null && markSeen(url)) {
+            CrawlRequest request = new CrawlRequest(url, depth);
+            frontier.add(request);
+            frontierLog.queued(request);
+        }
+    }
 
-                    subtasks.add(new SiteCrawler(site, absUrl, indexingConfig,
-                            siteRepository, pageRepository, visited, transactionTemplate, pageIndexingService));
-                }
+    private boolean markSeen(String url) {
+        String normalized = UrlNormalizer.normalize(url);
+        return normalized != null && visited.add(FingerprintSet.fingerprint(normalized));
+    }
 
-                invokeAll(subtasks);
-            }
+    private void finish() {
+        if (completion.isDone()) return;
 
-        } catch (Exception e) {
-            if (!stopped) {
-                transactionTemplate.execute(status -> {
-                    Site currentSite = siteRepository.findById(site.getId()).orElse(null);
-                    if (currentSite != null) {
-                        currentSite.setLastError("Ошибка обхода: " + e.getMessage());
-                        currentSite.setStatusTime(LocalDateTime.now());
-                        siteRepository.save(currentSite);
-                    }
-                    return null;
-                });
-            }
-        }
+        if (stopped) frontierLog.close();
+        completion.complete(null);
     }
 
-    private boolean isValidLink(String link, String rootUrl, Set<String> visited) {
-        if (link == null || link.isBlank()) return false;
-        if (!link.startsWith(rootUrl)) return false;
+    public synchronized void discardFrontier() {
+        frontierLog.delete();
+    }
 
-        int hash = link.indexOf('#');
-        if (hash >= 0) link = link.substring(0, hash);
+    private synchronized void markVisited(String url) {
+        frontierLog.visited(url);
+    }
 
-        if (link.matches(".*(\\.(jpg|jpeg|png|gif|bmp|ico|svg|pdf|doc|docx|xls|xlsx|zip|rar|mp4|avi|mov|wmv|css|js))$")) {
-            return false;
-        }
+    private Document process(String pathKey, FetchedPage page, CompletableFuture<Boolean> indexed) {
+        if (stopped) return null;
 
-        String path = getPath(link, rootUrl);
-        return path != null && !visited.contains(path);
-    }
+        try {
+            Document doc = page.getDocument();
+            if (page.isNotModified()) {
+                doc = scheduler.getPageRepository().findContentBySiteIdAndPathKey(site.getId(), pathKey)
+                        .map(content -> Jsoup.parse(content, page.getUrl()))
+                        .orElse(null);
+                page = new FetchedPage(page.getUrl(), page.getStatusCode(), page.getHtml(), doc,
+                        page.getEtag(), page.getLastModified());
+            }
 
+            scheduler.getIndexingQueue().submit(site.getId(), page, committed -> {
+                if (!committed) failedPathKeys.add(pathKey);
+                indexed.complete(committed);
+            });
 
-    private int getRandomDelay() {
-        return ThreadLocalRandom.current().nextInt(indexingConfig.getMinDelayMillis(),
-                indexingConfig.getMaxDelayMillis() + 1);
+            scheduler.getTransactionTemplate().execute(status -> {
+                Site currentSite = scheduler.getSiteRepository().findById(site.getId()).orElse(null);
+                if (currentSite != null && currentSite.getStatus() == Status.INDEXING) {
+                    currentSite.setStatusTime(LocalDateTime.now());
+                    scheduler.getSiteRepository().save(currentSite);
+                }
+                return null;
+            });
+            return doc;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            stop();
+        } catch (Exception e) {
+            failedPathKeys.add(pathKey);
+            recordError(e);
+        }
+        return null;
     }
 
-    private String getPath(String url, String siteUrl) {
-        if (!url.startsWith(siteUrl)) return null;
-        String path = url.substring(siteUrl.length());
-        if (path.isEmpty()) return "/";
-        return path.startsWith("/") ? path : "/" + path;
+    private void recordError(Throwable e) {
+        if (stopped) return;
+
+        scheduler.getTransactionTemplate().execute(status -> {
+            Site currentSite = scheduler.getSiteRepository().findById(site.getId()).orElse(null);
+            if (currentSite != null) {
+                currentSite.setLastError("Ошибка обхода: " + e.getMessage());
+                currentSite.setStatusTime(LocalDateTime.now());
+                scheduler.getSiteRepository().save(currentSite);
+            }
+            return null;
+        });
     }
 
-    public static void stop() {
-        stopped = true;
+    private int getRandomDelay() {
+        return ThreadLocalRandom.current().nextInt(scheduler.getIndexingConfig().getMinDelayMillis(),
+                scheduler.getIndexingConfig().getMaxDelayMillis() + 1);
     }
 
-    public static void reset() {
-        stopped = false;
+    private String getPathKey(String url, String siteUrl) {
+        return url.startsWith(siteUrl) ? UrlNormalizer.pathKey(url) : null;
     }
-}
\ No newline at end of file
+}
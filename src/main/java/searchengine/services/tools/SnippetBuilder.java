@@ -0,0 +1,139 @@
+package searchengine.services.tools;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Component
+public class SnippetBuilder {
+    private final LemmaFinder lemmaFinder;
+
+    public String build(String text, Collection<String> queryLemmas, int maxLength) {
+        Map<String, Integer> lemmaIndexes = new HashMap<>();
+        for (String lemma : queryLemmas) {
+            lemmaIndexes.putIfAbsent(lemma, lemmaIndexes.size());
+        }
+
+        Matches matches = new Matches();
+        WordTokenizer.tokenize(text, (source, start, end, cyrillic) -> {
+            String lemma = lemmaFinder.lemmatize(source, start, end, cyrillic);
+            Integer lemmaIndex = (lemma != null) ? lemmaIndexes.get(lemma) : null;
+            if (lemmaIndex != null) {
+                matches.add(start, end, lemmaIndex);
+            }
+        });
+
+        if (matches.size == 0) {
+            int end = Math.min(maxLength, text.length());
+            if (end < text.length()) {
+                int space = text.lastIndexOf(' ', end);
+                if (space > 0) end = space;
+            }
+            return highlight(text, 0, end, matches);
+        }
+
+        int[] window = findDensestWindow(matches, lemmaIndexes.size(), maxLength);
+        int firstMatch = matches.starts[window[0]];
+        int lastMatch = matches.ends[window[1]];
+
+        int start = Math.max(0, firstMatch - (maxLength - (lastMatch - firstMatch)) / 2);
+        int end = Math.min(text.length(), start + maxLength);
+        start = Math.max(0, Math.min(start, end - maxLength));
+
+        if (start > 0) {
+            int space = text.indexOf(' ', start);
+            if (space >= 0 && space < firstMatch) start = space + 1;
+        }
+        if (end < text.length()) {
+            int space = text.lastIndexOf(' ', end);
+            if (space >= lastMatch) end = space;
+        }
+
+        return highlight(text, start, end, matches);
+    }
+
+    private int[] findDensestWindow(Matches matches, int lemmaCount, int maxLength) {
+        int[] inWindow = new int[lemmaCount];
+        int distinct = 0;
+        int from = 0;
+        int bestFrom = 0;
+        int bestTo = 0;
+        int bestDistinct = 0;
+        int bestCount = 0;
+
+        for (int to = 0; to < matches.size; to++) {
+            if (inWindow[matches.lemmas[to]]++ == 0) distinct++;
+
+            while (from < to && matches.ends[to] - matches.starts[from] > maxLength) {
+                if (--inWindow[matches.lemmas[from]] == 0) distinct--;
+                from++;
+            }
+
+            int count = to - from + 1;
+            if (distinct > bestDistinct || (distinct == bestDistinct && count > bestCount)) {
+                bestFrom = from;
+                bestTo = to;
+                bestDistinct = distinct;
+                bestCount = count;
+            }
+        }
+        return new int[]{bestFrom, bestTo};
+    }
+
+    private String highlight(String text, int start, int end, Matches matches) {
+        StringBuilder snippet = new StringBuilder(end - start + 64);
+        if (start > 0) snippet.append("...");
+
+        int position = start;
+        for (int i = 0; i < matches.size; i++) {
+            if (matches.starts[i] < start) continue;
+            if (matches.ends[i] > end) break;
+
+            appendEscaped(snippet, text, position, matches.starts[i]);
+            snippet.append("<b>");
+            appendEscaped(snippet, text, matches.starts[i], matches.ends[i]);
+            snippet.append("</b>");
+            position = matches.ends[i];
+        }
+        appendEscaped(snippet, text, position, end);
+
+        if (end < text.length()) snippet.append("...");
+        return snippet.toString();
+    }
+
+    private void appendEscaped(StringBuilder snippet, String text, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> snippet.append("&lt;");
+                case '>' -> snippet.append("&gt;");
+                case '&' -> snippet.append("&amp;");
+                default -> snippet.append(c);
+            }
+        }
+    }
+
+    private static class Matches {
+        private int[] starts = new int[16];
+        private int[] ends = new int[16];
+        private int[] lemmas = new int[16];
+        private int size;
+
+        private void add(int start, int end, int lemma) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                lemmas = Arrays.copyOf(lemmas, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            lemmas[size] = lemma;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package searchengine.services.tools;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+
+public final class UrlNormalizer {
+    private static final String ALLOWED_CHARS = "-._~:/?#@!$&'()*+,;=";
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private UrlNormalizer() {
+    }
+
+    public static String normalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(encode(url)).normalize();
+        } catch (URISyntaxException e) {
+            return null;
+        }
+        if (uri.getScheme() == null || uri.getHost() == null) return null;
+
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(url.length())
+                .append(scheme)
+                .append("://")
+                .append(uri.getHost().toLowerCase(Locale.ROOT));
+
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && scheme.equals("http")) && !(port == 443 && scheme.equals("https"))) {
+            normalized.append(':').append(port);
+        }
+
+        String path = uri.getRawPath();
+        if (path == null || path.isEmpty()) {
+            normalized.append('/');
+        } else if (path.length() > 1 && path.endsWith("/")) {
+            normalized.append(path, 0, path.length() - 1);
+        } else {
+            normalized.append(path);
+        }
+
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            String[] parameters = Arrays.stream(query.split("&"))
+                    .filter(parameter -> !parameter.isEmpty())
+                    .sorted()
+                    .toArray(String[]::new);
+            if (parameters.length > 0) {
+                normalized.append('?').append(String.join("&", parameters));
+            }
+        }
+        return normalized.toString();
+    }
+
+    public static String pathKey(String url) {
+        String normalized = normalize(url);
+        if (normalized == null) return null;
+        return normalized.substring(normalized.indexOf('/', normalized.indexOf("://") + 3));
+    }
+
+    /**
+     * Percent-encodes the characters {@link URI} rejects (spaces, {@code |}, non-ASCII, stray {@code %})
+     * outside the authority, so links browsers follow as-is still parse.
+     */
+    private static String encode(String url) {
+        int authorityEnd = 0;
+        int schemeEnd = url.indexOf("://");
+        if (schemeEnd >= 0) {
+            authorityEnd = schemeEnd + 3;
+            while (authorityEnd < url.length() && "/?#".indexOf(url.charAt(authorityEnd)) < 0) {
+                authorityEnd++;
+            }
+        }
+
+        StringBuilder encoded = null;
+        for (int i = authorityEnd; i < url.length(); ) {
+            int codePoint = url.codePointAt(i);
+            int next = i + Character.charCount(codePoint);
+            if (isAllowed(url, i, codePoint)) {
+                if (encoded != null) encoded.appendCodePoint(codePoint);
+            } else {
+                if (encoded == null) encoded = new StringBuilder(url.length() + 16).append(url, 0, i);
+                for (byte b : url.substring(i, next).getBytes(StandardCharsets.UTF_8)) {
+                    encoded.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+                }
+            }
+            i = next;
+        }
+        return (encoded != null) ? encoded.toString() : url;
+    }
+
+    private static boolean isAllowed(String url, int index, int c) {
+        if (c == '%') {
+            return index + 2 < url.length()
+                    && Character.digit(url.charAt(index + 1), 16) >= 0
+                    && Character.digit(url.charAt(index + 2), 16) >= 0;
+        }
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || (c < 128 && ALLOWED_CHARS.indexOf(c) >= 0);
+    }
+}
@@ -0,0 +1,51 @@
+package searchengine.services.tools;
+
+public final class WordTokenizer {
+    private static final int NONE = 0;
+    private static final int CYRILLIC = 1;
+    private static final int LATIN_OR_DIGIT = 2;
+
+    @FunctionalInterface
+    public interface TokenHandler {
+        void onToken(CharSequence text, int start, int end, boolean cyrillic);
+    }
+
+    private WordTokenizer() {
+    }
+
+    public static void tokenize(CharSequence text, TokenHandler handler) {
+        int length = text.length();
+        int start = 0;
+        int tokenType = NONE;
+
+        for (int i = 0; i < length; i++) {
+            int type = charType(text.charAt(i));
+            if (type == tokenType) continue;
+
+            if (tokenType != NONE) {
+                handler.onToken(text, start, i, tokenType == CYRILLIC);
+            }
+            start = i;
+            tokenType = type;
+        }
+
+        if (tokenType != NONE) {
+            handler.onToken(text, start, length, tokenType == CYRILLIC);
+        }
+    }
+
+    public static char normalize(char c) {
+        if (c == 'ё' || c == 'Ё') return 'е';
+        return Character.toLowerCase(c);
+    }
+
+    private static int charType(char c) {
+        if ((c >= 'а' && c <= 'я') || (c >= 'А' && c <= 'Я') || c == 'ё' || c == 'Ё') {
+            return CYRILLIC;
+        }
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')) {
+            return LATIN_OR_DIGIT;
+        }
+        return NONE;
+    }
+}